@@ -0,0 +1,92 @@
+package ru.practicum.shareit.benchmark;
+
+import ru.practicum.shareit.booking.dto.BookingSimplyDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Синтетический набор данных: один владелец, size вещей, у каждой вещи свой запрос,
+ * COMMENTS_PER_ITEM комментариев и по одному прошедшему и будущему бронированию
+ */
+class Datasets {
+    static final int COMMENTS_PER_ITEM = 3;
+    static final Long OWNER_ID = 1L;
+    static final Long REQUESTOR_ID = 2L;
+    static final Long BOOKER_ID = 3L;
+
+    final User owner;
+    final User requestor;
+    final User booker;
+    final List<Item> items = new ArrayList<>();
+    final List<ItemRequest> requests = new ArrayList<>();
+    final List<Comment> comments = new ArrayList<>();
+    final List<Booking> bookings = new ArrayList<>();
+    final List<BookingSimplyDto> lastBookings = new ArrayList<>();
+    final List<BookingSimplyDto> nextBookings = new ArrayList<>();
+
+    Datasets(int size) {
+        LocalDateTime now = LocalDateTime.now();
+        owner = User.builder().id(OWNER_ID).name("owner").email("owner@email.ru").build();
+        requestor = User.builder().id(REQUESTOR_ID).name("requestor").email("requestor@email.ru").build();
+        booker = User.builder().id(BOOKER_ID).name("booker").email("booker@email.ru").build();
+        long commentId = 1;
+        long bookingId = 1;
+        for (long id = 1; id <= size; id++) {
+            ItemRequest request = ItemRequest.builder()
+                    .id(id)
+                    .description("Нужна вещь номер " + id)
+                    .requestor(requestor)
+                    .createDate(now.minusHours(id))
+                    .build();
+            requests.add(request);
+            Item item = Item.builder()
+                    .id(id)
+                    .name("Вещь " + id)
+                    .description("Описание вещи номер " + id)
+                    .available(true)
+                    .owner(owner)
+                    .request(request)
+                    .build();
+            items.add(item);
+            for (int i = 0; i < COMMENTS_PER_ITEM; i++) {
+                comments.add(Comment.builder()
+                        .id(commentId++)
+                        .text("Комментарий " + i)
+                        .itemId(id)
+                        .author(booker)
+                        .created(now.minusDays(1))
+                        .build());
+            }
+            Booking last = booking(bookingId++, item, now.minusDays(3), now.minusDays(2));
+            Booking next = booking(bookingId++, item, now.plusDays(2), now.plusDays(3));
+            bookings.add(last);
+            bookings.add(next);
+            lastBookings.add(simply(last));
+            nextBookings.add(simply(next));
+        }
+    }
+
+    private Booking booking(Long id, Item item, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .id(id)
+                .item(item)
+                .booker(booker)
+                .startDate(start)
+                .endDate(end)
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+
+    private static BookingSimplyDto simply(Booking booking) {
+        return new BookingSimplyDto(booking.getId(), booking.getStartDate(), booking.getEndDate(),
+                booking.getItem().getId(), booking.getBooker().getId());
+    }
+}
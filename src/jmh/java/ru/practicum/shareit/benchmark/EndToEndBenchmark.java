@@ -0,0 +1,110 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSimplyDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вызовы сервисов целиком, вместе с запросами к H2 в памяти.
+ * Данные создаются через сервисы приложения перед каждым прогоном
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+    @Param({"10", "100"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private BookingService bookingService;
+    private ItemRequestService itemRequestService;
+    private Long ownerId;
+    private Long bookerId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")
+                .run();
+        UserService userService = context.getBean(UserService.class);
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        itemRequestService = context.getBean(ItemRequestService.class);
+
+        ownerId = userService.addUser(user("owner")).getId();
+        bookerId = userService.addUser(user("booker")).getId();
+        Long requestorId = userService.addUser(user("requestor")).getId();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            Long requestId = itemRequestService.addRequest(requestorId, ItemRequestDto.builder()
+                    .description("Нужна вещь номер " + i)
+                    .build()).getId();
+            Long itemId = itemService.addItem(ownerId, ItemDto.builder()
+                    .name("Вещь " + i)
+                    .description("Описание вещи номер " + i)
+                    .available(true)
+                    .requestId(requestId)
+                    .build()).getId();
+            Long pastId = bookingService.addBooking(bookerId, booking(itemId, now.minusDays(3), now.minusDays(2))).getId();
+            bookingService.approveBookingRequest(ownerId, pastId);
+            Long futureId = bookingService.addBooking(bookerId, booking(itemId, now.plusDays(2), now.plusDays(3))).getId();
+            bookingService.approveBookingRequest(ownerId, futureId);
+            itemService.addComment(bookerId, itemId, CommentDto.builder().text("Комментарий " + i).build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemWithCommentDto> getAllItems() {
+        return itemService.getAllItems(ownerId);
+    }
+
+    @Benchmark
+    public List<BookingDto> getOwnerBookings() {
+        return bookingService.getAllBookingsForBookerOrItemOwner(ownerId, "ALL", 0, size, false);
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> findAllRequests() {
+        return itemRequestService.findAllRequests(ownerId, 0, size);
+    }
+
+    private static UserDto user(String name) {
+        return UserDto.builder().name(name).email(name + "@email.ru").build();
+    }
+
+    private static BookingSimplyDto booking(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return BookingSimplyDto.builder().itemId(itemId).start(start).end(end).build();
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Репозитории в памяти для замеров сборки ответов в сервисах без базы данных.
+ * Реализуются только методы, переданные в {@link #of}, остальные выбрасывают UnsupportedOperationException
+ */
+class InMemoryRepositories {
+    private InMemoryRepositories() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T of(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        Map<String, Function<Object[], Object>> handlers = new HashMap<>(methods);
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "InMemory" + type.getSimpleName();
+                default:
+                    Function<Object[], Object> handler = handlers.get(method.getName());
+                    if (handler == null) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return handler.apply(args);
+            }
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private Datasets data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new Datasets(size);
+    }
+
+    @Benchmark
+    public List<ItemDto> itemToItemDto() {
+        return ItemMapper.toItemDtoList(data.items);
+    }
+
+    @Benchmark
+    public List<ItemWithCommentDto> itemToItemWithCommentDto() {
+        return ItemMapper.toItemWithCommentDtoList(data.items);
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingToBookingDto() {
+        return BookingMapper.toBookingDtoList(data.bookings);
+    }
+
+    @Benchmark
+    public List<CommentDto> commentToCommentDto() {
+        return CommentMapper.toCommentDtoList(data.comments);
+    }
+}
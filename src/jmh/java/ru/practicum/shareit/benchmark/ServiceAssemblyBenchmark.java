@@ -0,0 +1,69 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceGuard;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сборка ответов ItemService.getAllItems и ItemRequestService.findAllRequests
+ * поверх репозиториев в памяти: измеряется только код группировки и маппинга
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceAssemblyBenchmark {
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ItemService itemService;
+    private ItemRequestService itemRequestService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Datasets data = new Datasets(size);
+        UserRepository userRepository = InMemoryRepositories.of(UserRepository.class, Map.of(
+                "existsById", args -> true,
+                "getReferenceById", args -> data.owner));
+        ItemRepository itemRepository = InMemoryRepositories.of(ItemRepository.class, Map.of(
+                "findAllByOwnerId", args -> data.items,
+                "findAllByRequestIdIn", args -> data.items));
+        CommentRepository commentRepository = InMemoryRepositories.of(CommentRepository.class, Map.of(
+                "getCommentsByItemIdIn", args -> data.comments));
+        BookingRepository bookingRepository = InMemoryRepositories.of(BookingRepository.class, Map.of(
+                "findLastBookings", args -> data.lastBookings,
+                "findNextBookings", args -> data.nextBookings));
+        ItemRequestRepository itemRequestRepository = InMemoryRepositories.of(ItemRequestRepository.class, Map.of(
+                "getItemRequestsByRequestorIsNot", args -> data.requests));
+        UserExistenceGuard userExistenceGuard = new UserExistenceGuard(userRepository, 100, false, 100, 0.01);
+
+        itemService = new ItemService(itemRepository, userRepository, commentRepository, bookingRepository,
+                itemRequestRepository, null, null, null, null, null, userExistenceGuard);
+        itemRequestService = new ItemRequestService(userRepository, itemRequestRepository, itemRepository,
+                null, userExistenceGuard);
+    }
+
+    @Benchmark
+    public List<ItemWithCommentDto> getAllItems() {
+        return itemService.getAllItems(Datasets.OWNER_ID);
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> findAllRequests() {
+        return itemRequestService.findAllRequests(Datasets.OWNER_ID, 0, size);
+    }
+}
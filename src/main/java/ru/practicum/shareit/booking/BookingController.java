@@ -1,9 +1,17 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.dto.BookingSimplyDto;
+import ru.practicum.shareit.booking.service.BookingEventStream;
 import ru.practicum.shareit.booking.service.BookingService;
 
 import javax.validation.Valid;
@@ -14,7 +22,9 @@ import java.util.List;
 @RequestMapping("/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final BookingEventStream bookingEventStream;
     private static final String OWNER_ID = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
 
     @GetMapping("/{bookingId}")
     public BookingDto getBooking(@RequestHeader(OWNER_ID) Long userId,
@@ -22,12 +32,43 @@ public class BookingController {
         return bookingService.getBooking(userId, bookingId);
     }
 
+    /**
+     * Лента изменений для инкрементальной синхронизации: бронирования пользователя и его вещей,
+     * измененные после курсора since. Курсор для следующего запроса возвращается в заголовке X-Next-Cursor
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<List<BookingDto>> getBookingChanges(@RequestHeader(OWNER_ID) Long userId,
+                                                              @RequestParam(name = "since", required = false) String since,
+                                                              @RequestParam(name = "size", defaultValue = "100") Integer size) {
+        BookingPageDto page = bookingService.getBookingChanges(userId, since, size);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR, page.getNextCursor())
+                .body(page.getBookings());
+    }
+
+    /**
+     * Поток событий (SSE) о новых бронированиях и решениях по ним для автора бронирования и владельца вещи
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookingEvents(@RequestHeader(OWNER_ID) Long userId) {
+        return bookingEventStream.subscribe(userId);
+    }
+
     @GetMapping
-    public List<BookingDto> getAllBookingsForCurrentUser(@RequestHeader(OWNER_ID) Long userId,
-                                                         @RequestParam(name = "state", defaultValue = "all") String state,
-                                                         @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                         @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return bookingService.getAllBookingsForBookerOrItemOwner(userId, state, from, size, true);
+    public ResponseEntity<List<BookingDto>> getAllBookingsForCurrentUser(@RequestHeader(OWNER_ID) Long userId,
+                                                                         @RequestParam(name = "state", defaultValue = "all") String state,
+                                                                         @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                         @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                         @RequestParam(name = "cursor", required = false) String cursor) {
+        return getBookings(userId, state, from, size, cursor, true);
+    }
+
+    @GetMapping(params = "view=compact")
+    public List<BookingShortDto> getShortBookingsForCurrentUser(@RequestHeader(OWNER_ID) Long userId,
+                                                                @RequestParam(name = "state", defaultValue = "all") String state,
+                                                                @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return bookingService.getShortBookingsForBookerOrItemOwner(userId, state, from, size, true);
     }
 
     @PostMapping
@@ -46,12 +87,45 @@ public class BookingController {
         }
     }
 
+    @PatchMapping
+    public List<BookingDecisionResultDto> answerBookingRequests(@RequestHeader(OWNER_ID) Long userId,
+                                                                @RequestBody List<BookingDecisionDto> decisions) {
+        return bookingService.decideBookingRequests(userId, decisions);
+    }
+
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsForCurrentOwner(@RequestHeader(OWNER_ID) Long userId,
-                                                       @RequestParam(name = "state", defaultValue = "all") String state,
-                                                       @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                       @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public ResponseEntity<List<BookingDto>> getBookingsForCurrentOwner(@RequestHeader(OWNER_ID) Long userId,
+                                                                       @RequestParam(name = "state", defaultValue = "all") String state,
+                                                                       @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                       @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                       @RequestParam(name = "cursor", required = false) String cursor) {
+
+        return getBookings(userId, state, from, size, cursor, false);
+    }
 
-        return bookingService.getAllBookingsForBookerOrItemOwner(userId, state, from, size, false);
+    @GetMapping(value = "/owner", params = "view=compact")
+    public List<BookingShortDto> getShortBookingsForCurrentOwner(@RequestHeader(OWNER_ID) Long userId,
+                                                                 @RequestParam(name = "state", defaultValue = "all") String state,
+                                                                 @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                 @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return bookingService.getShortBookingsForBookerOrItemOwner(userId, state, from, size, false);
+    }
+
+    /**
+     * Без параметра cursor работает постраничный вывод по смещению from.
+     * Если cursor передан (пустая строка - первая страница), страница строится по ключу
+     * (дата начала, идентификатор), а курсор следующей страницы возвращается в заголовке X-Next-Cursor
+     */
+    private ResponseEntity<List<BookingDto>> getBookings(Long userId, String state, Integer from, Integer size,
+                                                         String cursor, boolean isBooker) {
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getAllBookingsForBookerOrItemOwner(userId, state, from, size, isBooker));
+        }
+        BookingPageDto page = bookingService.getBookingsPage(userId, state, cursor, size, isBooker);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
     }
 }
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingEventDto {
+    Long id;
+    Long itemId;
+    Long bookerId;
+    BookingStatus status;
+    LocalDateTime start;
+    LocalDateTime end;
+    LocalDateTime updatedAt;
+}
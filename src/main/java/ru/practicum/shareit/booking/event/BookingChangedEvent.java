@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+
+/**
+ * Событие создания бронирования или изменения его статуса. Доставляется автору бронирования и владельцу вещи
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BookingChangedEvent {
+    BookingEventDto booking;
+    Long ownerId;
+}
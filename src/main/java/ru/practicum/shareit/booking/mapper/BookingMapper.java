@@ -4,6 +4,7 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
 import ru.practicum.shareit.booking.dto.BookingSimplyDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
@@ -38,6 +39,18 @@ public class BookingMapper {
                 .build();
     }
 
+    public static BookingEventDto toBookingEventDto(Booking booking) {
+        return BookingEventDto.builder()
+                .id(booking.getId())
+                .itemId(booking.getItem().getId())
+                .bookerId(booking.getBooker().getId())
+                .status(booking.getStatus())
+                .start(booking.getStartDate())
+                .end(booking.getEndDate())
+                .updatedAt(booking.getUpdatedAt())
+                .build();
+    }
+
     public static Booking toBooking(BookingSimplyDto bookingSimplyDto, Item item, User booker) {
         return Booking.builder()
                 .id(bookingSimplyDto.getId())
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingFilter {
+    Long userId;
+    boolean booker;
+    BookingState state;
+    LocalDateTime now;
+    Long itemId;
+    LocalDateTime rangeStart;
+    LocalDateTime rangeEnd;
+    BookingCursor after;
+}
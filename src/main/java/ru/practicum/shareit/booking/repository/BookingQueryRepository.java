@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+
+public interface BookingQueryRepository {
+    /**
+     * Метод для получения бронирований пользователя одним запросом. Вещь, ее владелец, запрос
+     * и автор бронирования загружаются в том же запросе
+     *
+     * @param filter условия отбора: роль пользователя, состояние бронирования, момент времени и дополнительные фильтры
+     * @param offset количество пропускаемых записей
+     * @param limit  максимальное количество записей
+     * @return список бронирований, отсортированный по дате начала и идентификатору по убыванию
+     */
+    List<Booking> findBookings(BookingFilter filter, long offset, int limit);
+
+    /**
+     * Метод для получения краткого представления бронирований пользователя. Выбираются только нужные столбцы,
+     * сущности в контекст персистентности не загружаются
+     *
+     * @param filter условия отбора, как в {@link #findBookings}
+     * @param offset количество пропускаемых записей
+     * @param limit  максимальное количество записей
+     * @return список бронирований в том же порядке, что и в {@link #findBookings}
+     */
+    List<BookingShortDto> findShortBookings(BookingFilter filter, long offset, int limit);
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Booking> findBookings(BookingFilter filter, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = cb.createQuery(Booking.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = (Join<Booking, Item>) booking.<Booking, Item>fetch("item", JoinType.INNER);
+        item.fetch("owner", JoinType.INNER);
+        item.fetch("request", JoinType.LEFT).fetch("requestor", JoinType.LEFT);
+        booking.fetch("booker", JoinType.INNER);
+
+        query.select(booking);
+        Path<Long> userId = filter.isBooker() ? booking.get("booker").get("id") : item.get("owner").get("id");
+        return page(cb, query, booking, item, userId, filter, offset, limit);
+    }
+
+    @Override
+    public List<BookingShortDto> findShortBookings(BookingFilter filter, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingShortDto> query = cb.createQuery(BookingShortDto.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item", JoinType.INNER);
+        Path<Long> bookerId = booking.get("booker").get("id");
+
+        query.select(cb.construct(BookingShortDto.class,
+                booking.get("id"),
+                booking.get("startDate"),
+                booking.get("endDate"),
+                booking.get("status"),
+                item.get("id"),
+                item.get("name"),
+                bookerId));
+        return page(cb, query, booking, item, filter.isBooker() ? bookerId : item.get("owner").get("id"), filter, offset, limit);
+    }
+
+    private <T> List<T> page(CriteriaBuilder cb, CriteriaQuery<T> query, Root<Booking> booking, Join<Booking, Item> item,
+                             Path<Long> userId, BookingFilter filter, long offset, int limit) {
+        query.where(buildPredicates(cb, filter, booking, item, userId).toArray(new Predicate[0]))
+                .orderBy(cb.desc(booking.get("startDate")), cb.desc(booking.get("id")));
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private List<Predicate> buildPredicates(CriteriaBuilder cb, BookingFilter filter, Root<Booking> booking,
+                                            Join<Booking, Item> item, Path<Long> userId) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(userId, filter.getUserId()));
+        switch (filter.getState()) {
+            case CURRENT:
+                predicates.add(cb.lessThan(booking.get("startDate"), filter.getNow()));
+                predicates.add(cb.greaterThan(booking.get("endDate"), filter.getNow()));
+                break;
+            case PAST:
+                predicates.add(cb.lessThan(booking.get("endDate"), filter.getNow()));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(booking.get("startDate"), filter.getNow()));
+                break;
+            case WAITING:
+                predicates.add(cb.equal(booking.get("status"), BookingStatus.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(cb.equal(booking.get("status"), BookingStatus.REJECTED));
+                break;
+            case EXPIRED:
+                predicates.add(cb.equal(booking.get("status"), BookingStatus.EXPIRED));
+                break;
+            default:
+                break;
+        }
+        if (filter.getItemId() != null) {
+            predicates.add(cb.equal(item.get("id"), filter.getItemId()));
+        }
+        if (filter.getRangeStart() != null) {
+            predicates.add(cb.greaterThan(booking.get("endDate"), filter.getRangeStart()));
+        }
+        if (filter.getRangeEnd() != null) {
+            predicates.add(cb.lessThan(booking.get("startDate"), filter.getRangeEnd()));
+        }
+        if (filter.getAfter() != null) {
+            LocalDateTime cursorStart = filter.getAfter().getTime();
+            predicates.add(cb.or(
+                    cb.lessThan(booking.get("startDate"), cursorStart),
+                    cb.and(cb.equal(booking.get("startDate"), cursorStart),
+                            cb.lessThan(booking.get("id"), filter.getAfter().getId()))));
+        }
+        return predicates;
+    }
+}
@@ -1,44 +1,152 @@
 package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.ActiveBookingDto;
+import ru.practicum.shareit.booking.dto.BookingSimplyDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerId(Long bookerId, PageRequest pageRequest);
-
-    List<Booking> findAllByBookerIdAndStartDateIsBeforeAndEndDateIsAfter(Long bookerId, LocalDateTime start,
-                                                                         LocalDateTime end, PageRequest pageRequest);
-
-    List<Booking> findAllByBookerIdAndEndDateIsBefore(Long bookerId, LocalDateTime end, PageRequest pageRequest);
-
-    List<Booking> findAllByBookerIdAndStartDateIsAfter(Long bookerId, LocalDateTime start,
-                                                                           PageRequest pageRequest);
-
-    List<Booking> findAllByBookerIdAndStatusEquals(Long bookerId, BookingStatus status, PageRequest pageRequest);
-
-    List<Booking> findAllByItemOwnerId(Long ownerId, PageRequest pageRequest);
-
-    List<Booking> findAllByItemOwnerIdAndStartDateIsBeforeAndEndDateIsAfter(Long ownerId, LocalDateTime start,
-                                                                            LocalDateTime end, PageRequest pageRequest);
-
-    List<Booking> findAllByItemOwnerIdAndEndDateIsBefore(Long ownerId, LocalDateTime start, PageRequest pageRequest);
-
-    List<Booking> findAllByItemOwnerIdAndStartDateIsAfter(Long ownerId, LocalDateTime start, PageRequest pageRequest);
-
-    List<Booking> findAllByItemOwnerIdAndStatusEquals(Long ownerId, BookingStatus status, PageRequest pageRequest);
-
-    List<Booking> findAllByBookerIdAndEndDateIsBeforeOrderByStartDateDesc(Long bookerId, LocalDateTime endDate);
-
-    List<Booking> findAllByStartDateIsAfterAndItemIdAndStatusOrderByStartDateAsc(LocalDateTime startDate, Long itemId, BookingStatus status);
-
-    List<Booking> findAllByStartDateIsBeforeAndItemIdAndStatusOrderByStartDateDesc(LocalDateTime startDate, Long itemId, BookingStatus status);
-
-    List<Booking> getBookingsByItemIdInOrderByStartDateAsc(List<Long> itemIdList);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
+    @Override
+    @EntityGraph(attributePaths = {"item", "item.owner", "item.request", "item.request.requestor", "booker"})
+    Optional<Booking> findById(Long id);
+
+    @Query("select b from Booking b where b.booker.id = :bookerId and b.endDate < :endDate order by b.startDate desc")
+    List<Booking> findAllByBookerIdAndEndDateIsBeforeOrderByStartDateDesc(@Param("bookerId") Long bookerId,
+                                                                         @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Метод для атомарной смены статуса бронирования: статус меняется, только если текущий статус равен ожидаемому.
+     * Контекст персистентности очищается после обновления, чтобы загруженные ранее бронирования не перезаписали статус
+     *
+     * @param id        идентификатор бронирования
+     * @param expected  ожидаемый текущий статус
+     * @param status    новый статус
+     * @param updatedAt время изменения
+     * @return количество обновленных записей: 0, если статус уже изменен другим запросом
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.updatedAt = :updatedAt where b.id = :id and b.status = :expected")
+    int updateStatus(@Param("id") Long id, @Param("expected") BookingStatus expected, @Param("status") BookingStatus status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Метод для пакетной смены статуса бронирований, аналог {@link #updateStatus} для списка идентификаторов
+     *
+     * @param ids       идентификаторы бронирований
+     * @param expected  ожидаемый текущий статус
+     * @param status    новый статус
+     * @param updatedAt время изменения
+     * @return количество обновленных записей
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.updatedAt = :updatedAt where b.id in :ids and b.status = :expected")
+    int updateStatuses(@Param("ids") Collection<Long> ids, @Param("expected") BookingStatus expected,
+                       @Param("status") BookingStatus status, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Метод для получения бронирований пользователя, измененных после позиции (since, afterId) и не позже until.
+     * Условие b.updatedAt >= :since дублирует ключ, чтобы поиск начинался с позиции в индексе (booker_id, updated_at, id)
+     *
+     * @param bookerId идентификатор автора бронирований
+     * @param since    время изменения последнего полученного бронирования
+     * @param afterId  идентификатор последнего полученного бронирования
+     * @param until    граница ленты изменений
+     * @param pageable размер страницы
+     * @return бронирования, отсортированные по времени изменения и идентификатору
+     */
+    @EntityGraph(attributePaths = {"item", "item.owner", "item.request", "item.request.requestor", "booker"})
+    @Query("select b from Booking b where b.booker.id = :userId and b.updatedAt >= :since and b.updatedAt <= :until " +
+            "and (b.updatedAt > :since or b.id > :afterId) order by b.updatedAt, b.id")
+    List<Booking> findBookerChanges(@Param("userId") Long bookerId, @Param("since") LocalDateTime since,
+                                    @Param("afterId") Long afterId, @Param("until") LocalDateTime until, Pageable pageable);
+
+    /**
+     * Метод для получения бронирований вещей владельца, аналог {@link #findBookerChanges}.
+     * Вещи владельца выбираются подзапросом, чтобы бронирования читались по индексу (item_id, updated_at, id)
+     */
+    @EntityGraph(attributePaths = {"item", "item.owner", "item.request", "item.request.requestor", "booker"})
+    @Query("select b from Booking b where b.item.id in (select i.id from Item i where i.owner.id = :userId) " +
+            "and b.updatedAt >= :since and b.updatedAt <= :until " +
+            "and (b.updatedAt > :since or b.id > :afterId) order by b.updatedAt, b.id")
+    List<Booking> findOwnerChanges(@Param("userId") Long ownerId, @Param("since") LocalDateTime since,
+                                   @Param("afterId") Long afterId, @Param("until") LocalDateTime until, Pageable pageable);
+
+    /**
+     * Метод для получения бронирований вещей владельца с блокировкой строк до конца транзакции.
+     * Бронирования других владельцев и несуществующие идентификаторы в результат не попадают
+     *
+     * @param ids     идентификаторы бронирований
+     * @param ownerId идентификатор владельца вещей
+     * @return найденные бронирования
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b where b.id in :ids and b.item.owner.id = :ownerId")
+    List<Booking> findAllByIdInForOwner(@Param("ids") Collection<Long> ids, @Param("ownerId") Long ownerId);
+
+    /**
+     * Метод для получения порции бронирований в заданном статусе, начавшихся до указанного момента,
+     * с блокировкой строк до конца транзакции
+     *
+     * @param status   статус бронирования
+     * @param before   момент, до которого должно начаться бронирование
+     * @param pageable размер порции
+     * @return бронирования, отсортированные по дате начала
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b where b.status = :status and b.startDate < :before order by b.startDate")
+    List<Booking> findAllByStatusAndStartDateBefore(@Param("status") BookingStatus status,
+                                                    @Param("before") LocalDateTime before, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingSimplyDto(b.id, b.startDate, b.endDate, b.item.id, b.booker.id) " +
+            "from Booking b where b.item.id = :itemId and b.status = :status and b.startDate < :now " +
+            "order by b.startDate desc")
+    List<BookingSimplyDto> findPastBookings(@Param("itemId") Long itemId, @Param("now") LocalDateTime now,
+                                            @Param("status") BookingStatus status, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingSimplyDto(b.id, b.startDate, b.endDate, b.item.id, b.booker.id) " +
+            "from Booking b where b.item.id = :itemId and b.status = :status and b.startDate > :now " +
+            "order by b.startDate asc")
+    List<BookingSimplyDto> findFutureBookings(@Param("itemId") Long itemId, @Param("now") LocalDateTime now,
+                                              @Param("status") BookingStatus status, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingSimplyDto(b.id, b.startDate, b.endDate, b.item.id, b.booker.id) " +
+            "from Booking b where b.item.id in :itemIds and b.status = :status and b.startDate = " +
+            "(select max(l.startDate) from Booking l where l.item.id = b.item.id and l.status = :status and l.startDate < :now)")
+    List<BookingSimplyDto> findLastBookings(@Param("itemIds") List<Long> itemIds, @Param("now") LocalDateTime now,
+                                            @Param("status") BookingStatus status);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingSimplyDto(b.id, b.startDate, b.endDate, b.item.id, b.booker.id) " +
+            "from Booking b where b.item.id in :itemIds and b.status = :status and b.startDate = " +
+            "(select min(n.startDate) from Booking n where n.item.id = b.item.id and n.status = :status and n.startDate > :now)")
+    List<BookingSimplyDto> findNextBookings(@Param("itemIds") List<Long> itemIds, @Param("now") LocalDateTime now,
+                                            @Param("status") BookingStatus status);
+
+    @Query("select new ru.practicum.shareit.booking.dto.ActiveBookingDto(b.id, b.startDate, b.endDate, i.id, b.booker.id, i.owner.id) " +
+            "from Booking b join b.item i where b.status in :statuses and b.endDate > :now")
+    List<ActiveBookingDto> findAllActiveBookings(@Param("statuses") List<BookingStatus> statuses,
+                                                 @Param("now") LocalDateTime now);
+
+    default Optional<BookingSimplyDto> findLastBooking(Long itemId, LocalDateTime now, BookingStatus status) {
+        return findPastBookings(itemId, now, status, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    default Optional<BookingSimplyDto> findNextBooking(Long itemId, LocalDateTime now, BookingStatus status) {
+        return findFutureBookings(itemId, now, status, PageRequest.of(0, 1)).stream().findFirst();
+    }
 }
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Источник времени изменения бронирований для ленты изменений. Время выдается вместе с регистрацией
+ * незавершенной транзакции, и лента читает только изменения раньше самой ранней из них: запись,
+ * получившая время раньше курсора, не может зафиксироваться после того, как курсор ее обогнал,
+ * сколько бы ни длилась ее транзакция. Время округляется до микросекунд - точности столбца updated_at
+ */
+@Component
+public class BookingChangeClock {
+    private final NavigableMap<LocalDateTime, Integer> inFlight = new TreeMap<>();
+
+    /**
+     * Метод для получения времени изменения. Внутри транзакции время считается незафиксированным до ее завершения
+     *
+     * @return время изменения
+     */
+    public synchronized LocalDateTime stamp() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            inFlight.merge(now, 1, Integer::sum);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    complete(now);
+                }
+            });
+        }
+        return now;
+    }
+
+    /**
+     * Метод для получения границы ленты изменений: все изменения не позже нее уже зафиксированы или отменены
+     *
+     * @param lag дополнительная задержка на случай изменений, время которых получено вне этого экземпляра
+     * @return граница ленты изменений
+     */
+    public synchronized LocalDateTime settledUntil(Duration lag) {
+        LocalDateTime until = LocalDateTime.now().minus(lag);
+        if (!inFlight.isEmpty() && !inFlight.firstKey().isAfter(until)) {
+            until = inFlight.firstKey().minus(1, ChronoUnit.MICROS);
+        }
+        return until;
+    }
+
+    private synchronized void complete(LocalDateTime stamp) {
+        inFlight.computeIfPresent(stamp, (time, count) -> count == 1 ? null : count - 1);
+    }
+}
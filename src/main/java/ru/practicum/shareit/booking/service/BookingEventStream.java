@@ -0,0 +1,248 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.service.UserExistenceGuard;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Поток событий бронирований (SSE) для авторов бронирований и владельцев вещей.
+ * События принимаются после фиксации транзакции и складываются в ограниченную очередь подписчика,
+ * отправка выполняется отдельными потоками. Подписчик, очередь которого переполнена, отключается:
+ * пропущенные изменения клиент получает из ленты /bookings/changes, идентификатор события - курсор этой ленты.
+ * Отправка одного события ограничена sendTimeout: медленный клиент занимает поток отправки не дольше этого времени,
+ * после чего поток прерывается, а подписчик отключается так же, как при переполнении очереди
+ */
+@Component
+@Slf4j
+public class BookingEventStream {
+    private static final String EVENT_NAME = "booking";
+
+    private final UserExistenceGuard userExistenceGuard;
+    private final int bufferSize;
+    private final int maxSubscribersPerUser;
+    private final long timeoutMillis;
+    private final long sendTimeoutMillis;
+    private final Executor sender;
+    private final ScheduledExecutorService watchdog;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Autowired
+    public BookingEventStream(UserExistenceGuard userExistenceGuard,
+                              @Value("${shareit.bookings.stream.buffer-size:64}") int bufferSize,
+                              @Value("${shareit.bookings.stream.max-subscribers-per-user:4}") int maxSubscribersPerUser,
+                              @Value("${shareit.bookings.stream.timeout:PT30M}") Duration timeout,
+                              @Value("${shareit.bookings.stream.send-timeout:PT5S}") Duration sendTimeout,
+                              @Value("${shareit.bookings.stream.sender-threads:2}") int senderThreads) {
+        this(userExistenceGuard, bufferSize, maxSubscribersPerUser, timeout, sendTimeout, senderExecutor(senderThreads),
+                Executors.newSingleThreadScheduledExecutor(daemon("booking-stream-watchdog", new AtomicInteger())));
+    }
+
+    BookingEventStream(UserExistenceGuard userExistenceGuard, int bufferSize, int maxSubscribersPerUser,
+                       Duration timeout, Duration sendTimeout, Executor sender, ScheduledExecutorService watchdog) {
+        this.userExistenceGuard = userExistenceGuard;
+        this.bufferSize = bufferSize;
+        this.maxSubscribersPerUser = maxSubscribersPerUser;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+        this.sender = sender;
+        this.watchdog = watchdog;
+    }
+
+    /**
+     * Метод для подписки пользователя на события его бронирований и бронирований его вещей
+     *
+     * @param userId идентификатор пользователя
+     * @return открытый поток событий
+     */
+    public SseEmitter subscribe(Long userId) {
+        if (!userExistenceGuard.exists(userId)) {
+            throw new NotFoundException("User was not found");
+        }
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        subscribers.compute(userId, (id, current) -> {
+            Set<Subscriber> userSubscribers = current == null ? ConcurrentHashMap.newKeySet() : current;
+            if (userSubscribers.size() >= maxSubscribersPerUser) {
+                throw new ConflictException("Too many booking streams are open");
+            }
+            userSubscribers.add(subscriber);
+            return userSubscribers;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        publish(event.getBooking().getBookerId(), event.getBooking());
+        publish(event.getOwnerId(), event.getBooking());
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(s -> s.emitter.complete()));
+        subscribers.clear();
+        if (sender instanceof ExecutorService) {
+            ((ExecutorService) sender).shutdownNow();
+        }
+        watchdog.shutdownNow();
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void publish(Long userId, BookingEventDto booking) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : userSubscribers) {
+            if (subscriber.queue.offer(booking)) {
+                subscriber.schedule();
+            } else {
+                drop(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        dropped.incrementAndGet();
+        log.warn("Booking stream of user {} is too slow and was closed", subscriber.userId);
+        remove(subscriber);
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private static ExecutorService senderExecutor(int threads) {
+        return Executors.newFixedThreadPool(threads, daemon("booking-stream", new AtomicInteger()));
+    }
+
+    private static ThreadFactory daemon(String name, AtomicInteger counter) {
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<BookingEventDto> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        private Thread sending;
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        /**
+         * Отправляет накопленные события. После снятия флага очередь проверяется повторно,
+         * чтобы не потерять событие, добавленное во время завершения отправки
+         */
+        void drain() {
+            try {
+                BookingEventDto booking;
+                while (!closed && (booking = queue.poll()) != null) {
+                    send(booking);
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove(this);
+                return;
+            } finally {
+                scheduled.set(false);
+                if (closed) {
+                    emitter.complete();
+                }
+            }
+            if (!closed && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        /**
+         * Прерывание потока снимается под той же блокировкой, под которой его выставляет сторож,
+         * поэтому опоздавший сторож не прервет отправку событий другому подписчику
+         */
+        private void send(BookingEventDto booking) throws IOException {
+            synchronized (this) {
+                sending = Thread.currentThread();
+            }
+            ScheduledFuture<?> guard = watchdog.schedule(this::abort, sendTimeoutMillis, TimeUnit.MILLISECONDS);
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(new BookingCursor(booking.getUpdatedAt(), booking.getId()).encode())
+                        .name(EVENT_NAME)
+                        .data(booking));
+            } finally {
+                guard.cancel(false);
+                synchronized (this) {
+                    sending = null;
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private synchronized void abort() {
+            if (sending != null && !closed) {
+                closed = true;
+                drop(this);
+                sending.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ConflictException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Перевод бронирований, оставшихся без ответа владельца после даты начала, из WAITING в EXPIRED.
+ * Бронирования обрабатываются порциями по batchSize, каждая порция - отдельная короткая транзакция,
+ * за один запуск обрабатывается не более maxBatches порций
+ */
+@Component
+@Slf4j
+public class BookingExpirySweeper {
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingChangeClock bookingChangeClock;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public BookingExpirySweeper(BookingRepository bookingRepository,
+                                BookingIntervalIndex bookingIntervalIndex,
+                                BookingChangeClock bookingChangeClock,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${shareit.bookings.expiry.batch-size:500}") int batchSize,
+                                @Value("${shareit.bookings.expiry.max-batches-per-run:20}") int maxBatches) {
+        this.bookingRepository = bookingRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.bookingChangeClock = bookingChangeClock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    /**
+     * Метод для перевода просроченных бронирований в статус EXPIRED
+     *
+     * @return количество бронирований, переведенных в статус EXPIRED
+     */
+    @Scheduled(fixedDelayString = "${shareit.bookings.expiry.interval:PT1M}",
+            initialDelayString = "${shareit.bookings.expiry.interval:PT1M}")
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer count = transactionTemplate.execute(status -> expireBatch(now));
+            expired += count == null ? 0 : count;
+            if (count == null || count < batchSize) {
+                break;
+            }
+        }
+        if (expired > 0) {
+            log.info("Переведено в статус EXPIRED {} бронирований", expired);
+        }
+        return expired;
+    }
+
+    private int expireBatch(LocalDateTime now) {
+        List<Booking> bookings = bookingRepository.findAllByStatusAndStartDateBefore(BookingStatus.WAITING, now,
+                PageRequest.of(0, batchSize));
+        if (bookings.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>();
+        bookings.forEach(b -> ids.add(b.getId()));
+        if (bookingRepository.updateStatuses(ids, BookingStatus.WAITING, BookingStatus.EXPIRED, bookingChangeClock.stamp()) != ids.size()) {
+            throw new ConflictException("Bookings were changed concurrently");
+        }
+        bookings.forEach(b -> bookingIntervalIndex.release(b.getItem().getId(), b.getId()));
+        return bookings.size();
+    }
+}
@@ -0,0 +1,315 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.ActiveBookingDto;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс интервалов бронирований в статусах WAITING и APPROVED по каждой вещи.
+ * Интервалы хранятся блоками: пересекающиеся интервалы (например, загруженные из базы бронирования,
+ * созданные до появления проверки) объединяются в один блок, который помнит свои бронирования.
+ * Блоки одной вещи не пересекаются, поэтому проверка конфликта сводится к поиску
+ * ближайшего блока, начинающегося раньше окончания нового интервала, за O(log n).
+ * Проверка и резервирование выполняются атомарно под блокировкой вещи.
+ * Индекс помнит владельца вещи и автора каждого бронирования: бронирования удаленного пользователя
+ * удаляются базой каскадно, и их интервалы освобождаются по событию удаления.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingIntervalIndex {
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void warmUp() {
+        List<ActiveBookingDto> bookings = bookingRepository.findAllActiveBookings(
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED), LocalDateTime.now());
+        timelines.clear();
+        bookings.forEach(b -> timeline(b.getItemId(), b.getOwnerId())
+                .load(new Slot(b.getId(), b.getBookerId(), b.getStart(), b.getEnd())));
+        log.info("Индекс интервалов бронирований построен, загружено {} бронирований", bookings.size());
+    }
+
+    /**
+     * Метод для резервирования интервала вещи. Если интервал пересекается с уже занятым, выбрасывается
+     * ConflictException. При откате текущей транзакции резерв снимается автоматически
+     *
+     * @param itemId    идентификатор вещи
+     * @param ownerId   идентификатор владельца вещи
+     * @param bookingId идентификатор бронирования или null, если бронирование еще не сохранено
+     * @param bookerId  идентификатор автора бронирования
+     * @param start     начало интервала
+     * @param end       окончание интервала
+     * @return занятый интервал или null, если интервал этого бронирования уже зарезервирован
+     */
+    public Slot reserve(Long itemId, Long ownerId, Long bookingId, Long bookerId, LocalDateTime start, LocalDateTime end) {
+        ItemTimeline timeline = timeline(itemId, ownerId);
+        Slot slot = timeline.reserve(bookingId, bookerId, start, end, LocalDateTime.now());
+        if (slot != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        timeline.remove(slot);
+                    }
+                }
+            });
+        }
+        return slot;
+    }
+
+    public void assign(Long itemId, Slot slot, Long bookingId) {
+        if (slot != null) {
+            timeline(itemId, null).assign(slot, bookingId);
+        }
+    }
+
+    /**
+     * Метод для освобождения интервала бронирования. Внутри транзакции интервал освобождается после ее фиксации
+     *
+     * @param itemId    идентификатор вещи
+     * @param bookingId идентификатор бронирования
+     */
+    public void release(Long itemId, Long bookingId) {
+        ItemTimeline timeline = timeline(itemId, null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    timeline.release(bookingId);
+                }
+            });
+        } else {
+            timeline.release(bookingId);
+        }
+    }
+
+    /**
+     * Метод для получения занятых интервалов вещи в заданном окне. Смежные интервалы объединяются,
+     * крайние обрезаются по границам окна
+     *
+     * @param itemId идентификатор вещи
+     * @param from   начало окна
+     * @param to     окончание окна
+     * @return упорядоченный список занятых интервалов
+     */
+    public List<IntervalDto> getBusyIntervals(Long itemId, LocalDateTime from, LocalDateTime to) {
+        ItemTimeline timeline = timelines.get(itemId);
+        return timeline == null ? new ArrayList<>() : timeline.busy(from, to);
+    }
+
+    /**
+     * Метод для удаления всех интервалов вещи. Внутри транзакции интервалы удаляются после ее фиксации
+     *
+     * @param itemId идентификатор вещи
+     */
+    public void removeItem(Long itemId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    timelines.remove(itemId);
+                }
+            });
+        } else {
+            timelines.remove(itemId);
+        }
+    }
+
+    /**
+     * Вместе с пользователем база удаляет его вещи и бронирования, в том числе бронирования его вещей
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isRemoved()) {
+            return;
+        }
+        Long userId = event.getUserId();
+        timelines.values().removeIf(timeline -> Objects.equals(timeline.ownerId, userId));
+        timelines.values().forEach(timeline -> timeline.releaseBooker(userId));
+    }
+
+    private ItemTimeline timeline(Long itemId, Long ownerId) {
+        ItemTimeline timeline = timelines.computeIfAbsent(itemId, id -> new ItemTimeline());
+        if (ownerId != null && timeline.ownerId == null) {
+            timeline.ownerId = ownerId;
+        }
+        return timeline;
+    }
+
+    @Getter
+    public static final class Slot {
+        private Long bookingId;
+        private final Long bookerId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        @Getter(AccessLevel.NONE)
+        private Block block;
+
+        Slot(Long bookingId, Long bookerId, LocalDateTime start, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.bookerId = bookerId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static final class Block {
+        private LocalDateTime start;
+        private LocalDateTime end;
+        private final List<Slot> slots = new ArrayList<>();
+
+        Block(Slot slot) {
+            this.start = slot.getStart();
+            this.end = slot.getEnd();
+        }
+    }
+
+    private static final class ItemTimeline {
+        private final NavigableMap<LocalDateTime, Block> blocks = new TreeMap<>();
+        private final Map<Long, Slot> slotsByBooking = new HashMap<>();
+        private volatile Long ownerId;
+
+        synchronized Slot reserve(Long bookingId, Long bookerId, LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+            if (bookingId != null && slotsByBooking.containsKey(bookingId)) {
+                return null;
+            }
+            pruneBefore(now);
+            Map.Entry<LocalDateTime, Block> previous = blocks.lowerEntry(end);
+            if (previous != null && previous.getValue().end.isAfter(start)) {
+                throw new ConflictException("Item is already booked for these dates");
+            }
+            Slot slot = new Slot(bookingId, bookerId, start, end);
+            insert(slot);
+            return slot;
+        }
+
+        synchronized void load(Slot slot) {
+            insert(slot);
+        }
+
+        synchronized void assign(Slot slot, Long bookingId) {
+            slot.bookingId = bookingId;
+            slotsByBooking.put(bookingId, slot);
+        }
+
+        synchronized void release(Long bookingId) {
+            Slot slot = slotsByBooking.get(bookingId);
+            if (slot != null) {
+                remove(slot);
+            }
+        }
+
+        /**
+         * Интервал удаляется из своего блока, оставшиеся интервалы блока объединяются заново:
+         * после удаления длинного интервала блок может распасться на несколько
+         */
+        synchronized void remove(Slot slot) {
+            Block block = slot.block;
+            if (block == null || !block.slots.remove(slot)) {
+                return;
+            }
+            slot.block = null;
+            if (slot.getBookingId() != null) {
+                slotsByBooking.remove(slot.getBookingId(), slot);
+            }
+            blocks.remove(block.start, block);
+            List<Slot> rest = new ArrayList<>(block.slots);
+            rest.sort(Comparator.comparing(Slot::getStart));
+            rest.forEach(this::insert);
+        }
+
+        synchronized void releaseBooker(Long bookerId) {
+            List<Slot> bookerSlots = new ArrayList<>();
+            blocks.values().forEach(block -> block.slots.stream()
+                    .filter(slot -> Objects.equals(slot.getBookerId(), bookerId))
+                    .forEach(bookerSlots::add));
+            bookerSlots.forEach(this::remove);
+        }
+
+        synchronized List<IntervalDto> busy(LocalDateTime from, LocalDateTime to) {
+            List<IntervalDto> busy = new ArrayList<>();
+            LocalDateTime first = blocks.floorKey(from);
+            for (Block block : blocks.subMap(first == null ? from : first, true, to, false).values()) {
+                if (!block.end.isAfter(from)) {
+                    continue;
+                }
+                LocalDateTime start = block.start.isBefore(from) ? from : block.start;
+                LocalDateTime end = block.end.isAfter(to) ? to : block.end;
+                IntervalDto last = busy.isEmpty() ? null : busy.get(busy.size() - 1);
+                if (last != null && !last.getEnd().isBefore(start)) {
+                    if (end.isAfter(last.getEnd())) {
+                        last.setEnd(end);
+                    }
+                } else {
+                    busy.add(new IntervalDto(start, end));
+                }
+            }
+            return busy;
+        }
+
+        /**
+         * Интервал добавляется в новый блок, который поглощает все пересекающиеся с ним блоки.
+         * Так как блоки не пересекаются, их окончания упорядочены так же, как начала
+         */
+        private void insert(Slot slot) {
+            Block merged = new Block(slot);
+            merged.slots.add(slot);
+            slot.block = merged;
+            Map.Entry<LocalDateTime, Block> entry = blocks.lowerEntry(slot.getEnd());
+            while (entry != null && entry.getValue().end.isAfter(slot.getStart())) {
+                Block block = entry.getValue();
+                blocks.remove(entry.getKey());
+                merged.slots.addAll(block.slots);
+                block.slots.forEach(s -> s.block = merged);
+                if (block.start.isBefore(merged.start)) {
+                    merged.start = block.start;
+                }
+                if (block.end.isAfter(merged.end)) {
+                    merged.end = block.end;
+                }
+                entry = blocks.lowerEntry(entry.getKey());
+            }
+            blocks.put(merged.start, merged);
+            if (slot.getBookingId() != null) {
+                slotsByBooking.put(slot.getBookingId(), slot);
+            }
+        }
+
+        private void pruneBefore(LocalDateTime now) {
+            while (!blocks.isEmpty() && !blocks.firstEntry().getValue().end.isAfter(now)) {
+                Block block = blocks.pollFirstEntry().getValue();
+                block.slots.forEach(slot -> {
+                    slot.block = null;
+                    if (slot.getBookingId() != null) {
+                        slotsByBooking.remove(slot.getBookingId(), slot);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.dto.BookingSimplyDto;
 
 import java.util.List;
@@ -12,8 +16,16 @@ public interface BookingService {
 
     BookingDto rejectBookingRequest(Long userId, Long bookingId);
 
+    List<BookingDecisionResultDto> decideBookingRequests(Long userId, List<BookingDecisionDto> decisions);
+
     BookingDto getBooking(Long userId, Long bookingId);
 
     List<BookingDto> getAllBookingsForBookerOrItemOwner(Long userId, String state, Integer from, Integer size, boolean isBooker);
 
+    List<BookingShortDto> getShortBookingsForBookerOrItemOwner(Long userId, String state, Integer from, Integer size, boolean isBooker);
+
+    BookingPageDto getBookingsPage(Long userId, String state, String cursor, Integer size, boolean isBooker);
+
+    BookingPageDto getBookingChanges(Long userId, String since, Integer size);
+
 }
@@ -1,36 +1,61 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.dto.BookingSimplyDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.repository.BookingFilter;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.InvalidArgumentsException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.UnknownStateException;
 import ru.practicum.shareit.exceptions.UserValidationException;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceGuard;
 
 import javax.transaction.Transactional;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_DECISIONS = 100;
+    private static final int MAX_CHANGES = 500;
+    private static final BookingCursor CHANGES_START = new BookingCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final UserExistenceGuard userExistenceGuard;
+    private final BookingChangeClock bookingChangeClock;
+    /**
+     * Лента не обгоняет незавершенные транзакции этого экземпляра, см. {@link BookingChangeClock}.
+     * Задержка - запас на изменения с других экземпляров: их транзакции должны фиксироваться быстрее нее
+     */
+    @Value("${shareit.bookings.changes.settle-lag:PT2S}")
+    private Duration changesSettleLag = Duration.ofSeconds(2);
 
     @Override
     @Transactional
@@ -46,7 +71,14 @@ public class BookingServiceImpl implements BookingService {
         if (Objects.equals(item.getOwner().getId(), userId)) {
             throw new UserValidationException("Booker is the owner of item");
         }
-        return BookingMapper.toBookingDto(bookingRepository.save(BookingMapper.toBooking(booking, item, user)));
+        BookingIntervalIndex.Slot slot = bookingIntervalIndex.reserve(item.getId(), item.getOwner().getId(), null, userId,
+                booking.getStart(), booking.getEnd());
+        Booking newBooking = BookingMapper.toBooking(booking, item, user);
+        newBooking.setUpdatedAt(bookingChangeClock.stamp());
+        Booking savedBooking = bookingRepository.save(newBooking);
+        bookingIntervalIndex.assign(item.getId(), slot, savedBooking.getId());
+        publishBookingChanged(savedBooking, item.getOwner().getId());
+        return BookingMapper.toBookingDto(savedBooking);
     }
 
     @Override
@@ -60,8 +92,11 @@ public class BookingServiceImpl implements BookingService {
         if (booking.getStatus().equals(BookingStatus.APPROVED)) {
             throw new InvalidArgumentsException("Booking already approved");
         }
-        booking.setStatus(BookingStatus.APPROVED);
-        bookingRepository.save(booking);
+        bookingIntervalIndex.reserve(booking.getItem().getId(), userId, booking.getId(), booking.getBooker().getId(),
+                booking.getStartDate(), booking.getEndDate());
+        changeWaitingStatus(booking, BookingStatus.APPROVED);
+        eventPublisher.publishEvent(new ItemChangedEvent(booking.getItem().getId()));
+        publishBookingChanged(booking, userId);
         return BookingMapper.toBookingDto(booking);
     }
 
@@ -76,11 +111,83 @@ public class BookingServiceImpl implements BookingService {
         if (booking.getStatus().equals(BookingStatus.APPROVED)) {
             throw new InvalidArgumentsException("This booking was approved");
         }
-        booking.setStatus(BookingStatus.REJECTED);
-        bookingRepository.save(booking);
+        changeWaitingStatus(booking, BookingStatus.REJECTED);
+        bookingIntervalIndex.release(booking.getItem().getId(), booking.getId());
+        eventPublisher.publishEvent(new ItemChangedEvent(booking.getItem().getId()));
+        publishBookingChanged(booking, userId);
         return BookingMapper.toBookingDto(booking);
     }
 
+    /**
+     * Бронирования владельца загружаются одним запросом с блокировкой строк, решения применяются
+     * двумя пакетными обновлениями (подтверждение и отклонение). Ошибка по отдельному бронированию
+     * не отменяет остальные решения и возвращается в результате для этого бронирования
+     */
+    @Override
+    @Transactional
+    public List<BookingDecisionResultDto> decideBookingRequests(Long userId, List<BookingDecisionDto> decisions) {
+        if (decisions == null || decisions.isEmpty() || decisions.size() > MAX_DECISIONS) {
+            throw new InvalidArgumentsException("From 1 to " + MAX_DECISIONS + " decisions are allowed");
+        }
+        if (decisions.stream().anyMatch(d -> d.getBookingId() == null || d.getApproved() == null)) {
+            throw new InvalidArgumentsException("'bookingId' and 'approved' are required");
+        }
+        checkUserExists(userId);
+        Set<Long> ids = new HashSet<>();
+        decisions.forEach(d -> ids.add(d.getBookingId()));
+        Map<Long, Booking> bookings = new HashMap<>();
+        bookingRepository.findAllByIdInForOwner(ids, userId).forEach(b -> bookings.put(b.getId(), b));
+
+        Map<BookingStatus, List<Booking>> changes = new EnumMap<>(BookingStatus.class);
+        Set<Long> decided = new HashSet<>();
+        List<BookingDecisionResultDto> results = new ArrayList<>();
+        for (BookingDecisionDto decision : decisions) {
+            BookingDecisionResultDto.BookingDecisionResultDtoBuilder result = BookingDecisionResultDto.builder()
+                    .bookingId(decision.getBookingId());
+            Booking booking = bookings.get(decision.getBookingId());
+            BookingStatus status = decision.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            if (!decided.add(decision.getBookingId())) {
+                results.add(result.error("Duplicate booking id").build());
+            } else if (booking == null) {
+                results.add(result.error("Booking was not found").build());
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                results.add(result.status(booking.getStatus()).error("Booking is no longer waiting for approval").build());
+            } else {
+                try {
+                    if (status == BookingStatus.APPROVED) {
+                        bookingIntervalIndex.reserve(booking.getItem().getId(), userId, booking.getId(),
+                                booking.getBooker().getId(), booking.getStartDate(), booking.getEndDate());
+                    }
+                    changes.computeIfAbsent(status, s -> new ArrayList<>()).add(booking);
+                    results.add(result.status(status).build());
+                } catch (ConflictException e) {
+                    results.add(result.status(booking.getStatus()).error(e.getMessage()).build());
+                }
+            }
+        }
+
+        Set<Long> changedItems = new HashSet<>();
+        LocalDateTime now = bookingChangeClock.stamp();
+        changes.forEach((status, changed) -> {
+            List<Long> changedIds = new ArrayList<>();
+            changed.forEach(b -> changedIds.add(b.getId()));
+            if (bookingRepository.updateStatuses(changedIds, BookingStatus.WAITING, status, now) != changedIds.size()) {
+                throw new ConflictException("Bookings were changed concurrently");
+            }
+            for (Booking booking : changed) {
+                if (status == BookingStatus.REJECTED) {
+                    bookingIntervalIndex.release(booking.getItem().getId(), booking.getId());
+                }
+                booking.setStatus(status);
+                booking.setUpdatedAt(now);
+                changedItems.add(booking.getItem().getId());
+                publishBookingChanged(booking, userId);
+            }
+        });
+        changedItems.forEach(itemId -> eventPublisher.publishEvent(new ItemChangedEvent(itemId)));
+        return results;
+    }
+
     @Override
     public BookingDto getBooking(Long userId, Long bookingId) {
         checkUserExists(userId);
@@ -98,40 +205,96 @@ public class BookingServiceImpl implements BookingService {
             throw new InvalidArgumentsException("'from' and 'size' should be positive");
         }
         checkUserExists(userId);
+        return BookingMapper.toBookingDtoList(bookingRepository.findBookings(buildFilter(userId, state, isBooker).build(), from, size));
+    }
+
+    @Override
+    public List<BookingShortDto> getShortBookingsForBookerOrItemOwner(Long userId, String state, Integer from, Integer size, boolean isBooker) {
+        if (from < 0 || size <= 0) {
+            throw new InvalidArgumentsException("'from' and 'size' should be positive");
+        }
+        checkUserExists(userId);
+        return bookingRepository.findShortBookings(buildFilter(userId, state, isBooker).build(), from, size);
+    }
+
+    @Override
+    public BookingPageDto getBookingsPage(Long userId, String state, String cursor, Integer size, boolean isBooker) {
+        if (size <= 0) {
+            throw new InvalidArgumentsException("'size' should be positive");
+        }
+        checkUserExists(userId);
+        BookingFilter filter = buildFilter(userId, state, isBooker)
+                .after(cursor == null || cursor.isEmpty() ? null : BookingCursor.decode(cursor))
+                .build();
+        List<Booking> bookings = bookingRepository.findBookings(filter, 0, size);
+        Booking last = bookings.size() < size ? null : bookings.get(bookings.size() - 1);
+        return BookingPageDto.builder()
+                .bookings(BookingMapper.toBookingDtoList(bookings))
+                .nextCursor(last == null ? null : new BookingCursor(last.getStartDate(), last.getId()).encode())
+                .build();
+    }
+
+    /**
+     * Лента объединяет изменения бронирований пользователя и бронирований его вещей: каждая сторона
+     * читается отдельным запросом по своему индексу, результаты сливаются по (времени изменения, идентификатору).
+     * Курсор возвращается всегда, при отсутствии изменений - тот же, что был передан
+     */
+    @Override
+    public BookingPageDto getBookingChanges(Long userId, String since, Integer size) {
+        if (size <= 0) {
+            throw new InvalidArgumentsException("'size' should be positive");
+        }
+        checkUserExists(userId);
+        BookingCursor from = since == null || since.isEmpty() ? CHANGES_START : BookingCursor.decode(since);
+        LocalDateTime until = bookingChangeClock.settledUntil(changesSettleLag);
+        // обе стороны ленты читаются целой страницей и объединяются в памяти, поэтому страница ограничена;
+        // остаток клиент получает следующими запросами по курсору
+        int limit = Math.min(size, MAX_CHANGES);
+        PageRequest page = PageRequest.of(0, limit);
+        List<Booking> changes = new ArrayList<>(bookingRepository.findBookerChanges(userId, from.getTime(), from.getId(), until, page));
+        changes.addAll(bookingRepository.findOwnerChanges(userId, from.getTime(), from.getId(), until, page));
+        changes.sort(Comparator.comparing(Booking::getUpdatedAt).thenComparing(Booking::getId));
+        List<Booking> bookings = changes.subList(0, Math.min(limit, changes.size()));
+        BookingCursor next = bookings.isEmpty() ? from
+                : new BookingCursor(bookings.get(bookings.size() - 1).getUpdatedAt(), bookings.get(bookings.size() - 1).getId());
+        return BookingPageDto.builder()
+                .bookings(BookingMapper.toBookingDtoList(bookings))
+                .nextCursor(next.encode())
+                .build();
+    }
+
+    private void changeWaitingStatus(Booking booking, BookingStatus status) {
+        LocalDateTime now = bookingChangeClock.stamp();
+        if (bookingRepository.updateStatus(booking.getId(), BookingStatus.WAITING, status, now) == 0) {
+            throw new ConflictException("Booking is no longer waiting for approval");
+        }
+        booking.setStatus(status);
+        booking.setUpdatedAt(now);
+    }
+
+    private void publishBookingChanged(Booking booking, Long ownerId) {
+        eventPublisher.publishEvent(new BookingChangedEvent(BookingMapper.toBookingEventDto(booking), ownerId));
+    }
+
+    private BookingFilter.BookingFilterBuilder buildFilter(Long userId, String state, boolean isBooker) {
+        return BookingFilter.builder()
+                .userId(userId)
+                .booker(isBooker)
+                .state(parseState(state))
+                .now(LocalDateTime.now());
+    }
+
+    private BookingState parseState(String state) {
         try {
-            BookingState.valueOf(state.toUpperCase());
-        } catch (Exception e) {
+            return BookingState.valueOf(state.toUpperCase());
+        } catch (IllegalArgumentException e) {
             throw new UnknownStateException("Unknown state: UNSUPPORTED_STATUS");
         }
-        PageRequest pageRequest = PageRequest.of((from / size), size, Sort.by("startDate").descending());
-        switch (BookingState.valueOf(state.toUpperCase())) {
-            case ALL:
-                return isBooker ? BookingMapper.toBookingDtoList(bookingRepository.findAllByBookerId(userId, pageRequest))
-                        : BookingMapper.toBookingDtoList(bookingRepository.findAllByItemOwnerId(userId, pageRequest));
-            case CURRENT:
-                return isBooker ? BookingMapper.toBookingDtoList(bookingRepository.findAllByBookerIdAndStartDateIsBeforeAndEndDateIsAfter(userId,
-                        LocalDateTime.now(), LocalDateTime.now(), pageRequest))
-                        : BookingMapper.toBookingDtoList(bookingRepository.findAllByItemOwnerIdAndStartDateIsBeforeAndEndDateIsAfter(userId,
-                        LocalDateTime.now(), LocalDateTime.now(), pageRequest));
-            case FUTURE:
-                return isBooker ? BookingMapper.toBookingDtoList(bookingRepository.findAllByBookerIdAndStartDateIsAfter(userId, LocalDateTime.now(), pageRequest))
-                        : BookingMapper.toBookingDtoList(bookingRepository.findAllByItemOwnerIdAndStartDateIsAfter(userId, LocalDateTime.now(), pageRequest));
-            case PAST:
-                return isBooker ? BookingMapper.toBookingDtoList(bookingRepository.findAllByBookerIdAndEndDateIsBefore(userId, LocalDateTime.now(), pageRequest))
-                        : BookingMapper.toBookingDtoList(bookingRepository.findAllByItemOwnerIdAndEndDateIsBefore(userId, LocalDateTime.now(), pageRequest));
-            case WAITING:
-                return isBooker ? BookingMapper.toBookingDtoList(bookingRepository.findAllByBookerIdAndStatusEquals(userId, BookingStatus.WAITING, pageRequest))
-                        : BookingMapper.toBookingDtoList(bookingRepository.findAllByItemOwnerIdAndStatusEquals(userId, BookingStatus.WAITING, pageRequest));
-            case REJECTED:
-                return isBooker ? BookingMapper.toBookingDtoList(bookingRepository.findAllByBookerIdAndStatusEquals(userId, BookingStatus.REJECTED, pageRequest))
-                        : BookingMapper.toBookingDtoList(bookingRepository.findAllByItemOwnerIdAndStatusEquals(userId, BookingStatus.REJECTED, pageRequest));
-            default:
-                throw new UnknownStateException("Unknown state: UNSUPPORTED_STATUS");
-        }
     }
 
     private void checkUserExists(Long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User was not found"));
+        if (!userExistenceGuard.exists(userId)) {
+            throw new NotFoundException("User was not found");
+        }
     }
 }
@@ -26,6 +26,13 @@ public class ErrorHandler {
         return Map.of("400 BAD REQUEST", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleConflictException(final ConflictException e) {
+        log.debug("Получен статус 409 Conflict {}", e.getMessage(), e);
+        return Map.of("409 CONFLICT", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public Map<String, String> handleException(final Exception e) {
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.internal.dto.CacheStatsDto;
+import ru.practicum.shareit.internal.dto.PerfSummaryDto;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.user.service.UserExistenceGuard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/internal")
+@Slf4j
+public class InternalController {
+    private final ItemViewCache itemViewCache;
+    private final UserExistenceGuard userExistenceGuard;
+    private final PerfMetrics perfMetrics;
+    private final SecondLevelCacheStats secondLevelCacheStats;
+
+    @GetMapping("/caches")
+    public List<CacheStatsDto> getCacheStats() {
+        log.info("Получен запрос на получение статистики кэшей");
+        List<CacheStatsDto> stats = new ArrayList<>(List.of(itemViewCache.getStats(), userExistenceGuard.getStats()));
+        stats.addAll(secondLevelCacheStats.getStats());
+        return stats;
+    }
+
+    @GetMapping("/perf")
+    public PerfSummaryDto getPerfSummary() {
+        log.info("Получен запрос на получение сводки по производительности");
+        return perfMetrics.getSummary();
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.internal;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Учет времени выполнения JDBC-запросов Hibernate в текущем потоке.
+ * Подключается через свойство hibernate.session.events.auto, Hibernate создает экземпляр на каждую сессию
+ */
+public class JdbcTimeListener extends BaseSessionEventListener {
+    private static final ThreadLocal<long[]> NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private long statementStart = -1;
+    private long batchStart = -1;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        if (statementStart >= 0) {
+            NANOS.get()[0] += System.nanoTime() - statementStart;
+            statementStart = -1;
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        if (batchStart >= 0) {
+            NANOS.get()[0] += System.nanoTime() - batchStart;
+            batchStart = -1;
+        }
+    }
+
+    public static void reset() {
+        NANOS.get()[0] = 0;
+    }
+
+    public static long nanos() {
+        return NANOS.get()[0];
+    }
+}
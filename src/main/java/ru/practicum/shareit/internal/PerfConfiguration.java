@@ -0,0 +1,19 @@
+package ru.practicum.shareit.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class PerfConfiguration implements WebMvcConfigurer {
+    private final ObjectProvider<PerfMetrics> perfMetrics;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        perfMetrics.ifAvailable(metrics -> registry.addInterceptor(new RequestPerfInterceptor(metrics))
+                .excludePathPatterns("/internal/**"));
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.internal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.internal.dto.PerfStatsDto;
+import ru.practicum.shareit.internal.dto.PerfSummaryDto;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Метрики производительности эндпоинтов и методов сервисов: время выполнения,
+ * количество SQL-запросов и время JDBC на один вызов. Гистограммы и перцентили
+ * настраиваются свойствами management.metrics.distribution.* с префиксом shareit
+ */
+@Component
+@RequiredArgsConstructor
+public class PerfMetrics {
+    static final String REQUEST_TIME = "shareit.request";
+    static final String REQUEST_SQL = "shareit.request.sql";
+    static final String REQUEST_JDBC = "shareit.request.jdbc";
+    static final String SERVICE_TIME = "shareit.service";
+    static final String SERVICE_SQL = "shareit.service.sql";
+
+    private final MeterRegistry registry;
+
+    /**
+     * Метод для учета обработанного HTTP-запроса
+     *
+     * @param method     HTTP-метод
+     * @param uri        шаблон пути эндпоинта
+     * @param nanos      время обработки запроса
+     * @param statements количество SQL-запросов
+     * @param jdbcNanos  время выполнения SQL-запросов
+     */
+    public void recordRequest(String method, String uri, long nanos, long statements, long jdbcNanos) {
+        Tags tags = Tags.of("method", method, "uri", uri);
+        Timer.builder(REQUEST_TIME).tags(tags).register(registry).record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(REQUEST_SQL).baseUnit("statements").tags(tags).register(registry).record(statements);
+        Timer.builder(REQUEST_JDBC).tags(tags).register(registry).record(jdbcNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Метод для учета вызова метода сервиса
+     *
+     * @param service    имя класса сервиса
+     * @param method     имя метода
+     * @param nanos      время выполнения метода
+     * @param statements количество SQL-запросов, выполненных за время вызова
+     */
+    public void recordService(String service, String method, long nanos, long statements) {
+        Tags tags = Tags.of("service", service, "method", method);
+        Timer.builder(SERVICE_TIME).tags(tags).register(registry).record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(SERVICE_SQL).baseUnit("statements").tags(tags).register(registry).record(statements);
+    }
+
+    /**
+     * Метод для получения сводки по эндпоинтам и методам сервисов
+     *
+     * @return сводка, отсортированная по суммарному времени выполнения
+     */
+    public PerfSummaryDto getSummary() {
+        List<PerfStatsDto> endpoints = registry.find(REQUEST_TIME).timers().stream()
+                .sorted(Comparator.comparingDouble((Timer t) -> t.totalTime(TimeUnit.NANOSECONDS)).reversed())
+                .map(timer -> {
+                    String method = timer.getId().getTag("method");
+                    String uri = timer.getId().getTag("uri");
+                    PerfStatsDto stats = toStats(method + " " + uri, timer,
+                            registry.find(REQUEST_SQL).tags("method", method, "uri", uri).summary());
+                    Timer jdbc = registry.find(REQUEST_JDBC).tags("method", method, "uri", uri).timer();
+                    if (jdbc != null && timer.count() > 0) {
+                        stats.setJdbcMsPerCall(jdbc.totalTime(TimeUnit.MILLISECONDS) / timer.count());
+                    }
+                    return stats;
+                })
+                .collect(Collectors.toList());
+        List<PerfStatsDto> services = registry.find(SERVICE_TIME).timers().stream()
+                .sorted(Comparator.comparingDouble((Timer t) -> t.totalTime(TimeUnit.NANOSECONDS)).reversed())
+                .map(timer -> {
+                    String service = timer.getId().getTag("service");
+                    String method = timer.getId().getTag("method");
+                    return toStats(service + "." + method, timer,
+                            registry.find(SERVICE_SQL).tags("service", service, "method", method).summary());
+                })
+                .collect(Collectors.toList());
+        return PerfSummaryDto.builder()
+                .endpoints(endpoints)
+                .services(services)
+                .build();
+    }
+
+    private static PerfStatsDto toStats(String name, Timer timer, DistributionSummary sql) {
+        Double p95 = null;
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.95) {
+                p95 = percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return PerfStatsDto.builder()
+                .name(name)
+                .count(timer.count())
+                .meanMs(timer.mean(TimeUnit.MILLISECONDS))
+                .p95Ms(p95)
+                .maxMs(timer.max(TimeUnit.MILLISECONDS))
+                .sqlPerCall(sql != null ? sql.mean() : null)
+                .maxSql(sql != null ? sql.max() : null)
+                .build();
+    }
+}
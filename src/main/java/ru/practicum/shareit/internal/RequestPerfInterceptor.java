@@ -0,0 +1,40 @@
+package ru.practicum.shareit.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Замер времени обработки запроса, количества SQL-запросов и времени JDBC для каждого эндпоинта
+ */
+@RequiredArgsConstructor
+public class RequestPerfInterceptor implements HandlerInterceptor {
+    private static final String START_ATTRIBUTE = RequestPerfInterceptor.class.getName() + ".start";
+
+    private final PerfMetrics perfMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            SqlStatementCounter.reset();
+            JdbcTimeListener.reset();
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (start == null || uri == null) {
+            return;
+        }
+        perfMetrics.recordRequest(request.getMethod(), uri.toString(), System.nanoTime() - (Long) start,
+                SqlStatementCounter.count(), JdbcTimeListener.nanos());
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Сброс кэша второго уровня после каскадных удалений в базе (ON DELETE CASCADE), о которых Hibernate не знает.
+ * Вещи и запросы удаленного пользователя удаляются базой, поэтому после фиксации удаления
+ * регионы вещей, запросов и кэшированных списков вещей очищаются целиком
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheEvictor {
+    private final EntityManagerFactory entityManagerFactory;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isRemoved()) {
+            return;
+        }
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Item.class);
+        cache.evictEntityData(ItemRequest.class);
+        cache.evictQueryRegion(SecondLevelCacheRegionFactory.ITEM_QUERY_REGION);
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.internal;
+
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Фабрика регионов кэша второго уровня Hibernate на Ehcache (JCache). Каждая фабрика сессий получает
+ * собственный менеджер кэшей, чтобы несколько контекстов с разными базами не делили записи.
+ * Размер и время жизни региона задаются свойствами shareit.cache.l2.(ключ региона).max-entries и .ttl
+ */
+public class SecondLevelCacheRegionFactory extends JCacheRegionFactory {
+    public static final String USER_REGION = "shareit.user";
+    public static final String ITEM_REGION = "shareit.item";
+    public static final String REQUEST_REGION = "shareit.request";
+    public static final String ITEM_QUERY_REGION = "shareit.item-queries";
+
+    private static final String PROPERTY_PREFIX = "shareit.cache.l2.";
+    private static final List<Region> REGIONS = List.of(
+            new Region(USER_REGION, "user", 10_000, Duration.ofMinutes(30)),
+            new Region(ITEM_REGION, "item", 20_000, Duration.ofMinutes(30)),
+            new Region(REQUEST_REGION, "request", 10_000, Duration.ofMinutes(30)),
+            new Region(ITEM_QUERY_REGION, "item-queries", 2_000, Duration.ofMinutes(5)),
+            new Region(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, "query-results", 1_000, Duration.ofMinutes(5)),
+            // метки обновления таблиц не должны вытесняться и истекать раньше результатов запросов
+            new Region(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, "update-timestamps", 10_000, null));
+
+    private final Map<String, Long> maxEntries = new HashMap<>();
+
+    @Override
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map properties) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        Map<String, CacheConfiguration<?, ?>> caches = new HashMap<>();
+        for (Region region : REGIONS) {
+            long size = Long.parseLong(property(properties, region.key + ".max-entries", String.valueOf(region.maxEntries)));
+            CacheConfigurationBuilder<Object, Object> cache = CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                    Object.class, Object.class, ResourcePoolsBuilder.heap(size));
+            if (region.ttl != null) {
+                Duration ttl = Duration.parse(property(properties, region.key + ".ttl", region.ttl.toString()));
+                cache = cache.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl));
+            }
+            caches.put(region.name, cache.build());
+            maxEntries.put(region.name, size);
+        }
+        return provider.getCacheManager(URI.create("shareit-l2:" + UUID.randomUUID()),
+                new DefaultConfiguration(caches, provider.getDefaultClassLoader()));
+    }
+
+    /**
+     * Метод для получения максимального количества записей региона
+     *
+     * @param region название региона
+     * @return максимальное количество записей или null, если регион не настроен
+     */
+    public Long getMaxEntries(String region) {
+        return maxEntries.get(region);
+    }
+
+    private static String property(Map<?, ?> properties, String key, String defaultValue) {
+        Object value = properties.get(PROPERTY_PREFIX + key);
+        return value == null ? defaultValue : value.toString();
+    }
+
+    private static class Region {
+        private final String name;
+        private final String key;
+        private final long maxEntries;
+        private final Duration ttl;
+
+        Region(String name, String key, long maxEntries, Duration ttl) {
+            this.name = name;
+            this.key = key;
+            this.maxEntries = maxEntries;
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.internal.dto.CacheStatsDto;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Статистика регионов кэша второго уровня Hibernate: попадания, промахи и заполненность
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheStats {
+    private static final List<String> REGIONS = List.of(SecondLevelCacheRegionFactory.USER_REGION,
+            SecondLevelCacheRegionFactory.ITEM_REGION, SecondLevelCacheRegionFactory.REQUEST_REGION,
+            SecondLevelCacheRegionFactory.ITEM_QUERY_REGION);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public List<CacheStatsDto> getStats() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Object regionFactory = sessionFactory.getCache().getRegionFactory();
+        List<CacheStatsDto> stats = new ArrayList<>();
+        for (String region : REGIONS) {
+            CacheRegionStatistics statistics = sessionFactory.getStatistics().getCacheRegionStatistics(region);
+            if (statistics == null) {
+                continue;
+            }
+            long hits = statistics.getHitCount();
+            long misses = statistics.getMissCount();
+            long size = statistics.getElementCountInMemory();
+            Long maxSize = regionFactory instanceof SecondLevelCacheRegionFactory
+                    ? ((SecondLevelCacheRegionFactory) regionFactory).getMaxEntries(region) : null;
+            stats.add(CacheStatsDto.builder()
+                    .name("l2:" + region)
+                    .size(size < 0 ? null : (int) size)
+                    .maxSize(maxSize == null ? null : maxSize.intValue())
+                    .hits(hits)
+                    .misses(misses)
+                    .hitRatio(hits + misses == 0 ? 0.0 : (double) hits / (hits + misses))
+                    .build());
+        }
+        return stats;
+    }
+}
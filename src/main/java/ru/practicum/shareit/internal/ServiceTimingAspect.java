@@ -0,0 +1,29 @@
+package ru.practicum.shareit.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Замер времени выполнения и количества SQL-запросов для публичных методов всех сервисов приложения
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceTimingAspect {
+    private final PerfMetrics perfMetrics;
+
+    @Around("@within(org.springframework.stereotype.Service) && within(ru.practicum.shareit..*)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long statements = SqlStatementCounter.count();
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            perfMetrics.recordService(joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                    joinPoint.getSignature().getName(), System.nanoTime() - start, SqlStatementCounter.count() - statements);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.internal;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Счетчик SQL-запросов, подготовленных Hibernate в текущем потоке, вместе с текстом последнего запроса.
+ * Подключается через свойство hibernate.session_factory.statement_inspector
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+    private static final ThreadLocal<String> LAST = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        LAST.set(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+        LAST.remove();
+    }
+
+    public static long count() {
+        return COUNT.get()[0];
+    }
+
+    public static String lastStatement() {
+        return LAST.get();
+    }
+}
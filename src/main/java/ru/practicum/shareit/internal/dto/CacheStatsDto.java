@@ -0,0 +1,21 @@
+package ru.practicum.shareit.internal.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CacheStatsDto {
+    String name;
+    Integer size;
+    Integer maxSize;
+    Long hits;
+    Long misses;
+    Long evictions;
+    Long expirations;
+    Long invalidations;
+    Double hitRatio;
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.internal.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PerfStatsDto {
+    String name;
+    Long count;
+    Double meanMs;
+    Double p95Ms;
+    Double maxMs;
+    Double sqlPerCall;
+    Double maxSql;
+    Double jdbcMsPerCall;
+}
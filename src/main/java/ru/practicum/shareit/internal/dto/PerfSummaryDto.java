@@ -0,0 +1,16 @@
+package ru.practicum.shareit.internal.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PerfSummaryDto {
+    List<PerfStatsDto> endpoints;
+    List<PerfStatsDto> services;
+}
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Comment;
 
@@ -8,9 +10,9 @@ import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> getCommentsByItemId(Long itemId);
+    @Query("select c from Comment c join fetch c.author where c.itemId = :itemId order by c.created asc")
+    List<Comment> getCommentsByItemId(@Param("itemId") Long itemId);
 
-    boolean existsByItemId(Long itemId);
-
-    List<Comment> getCommentsByItemIdIn(List<Long> itemIds);
+    @Query("select c from Comment c join fetch c.author where c.itemId in :itemIds order by c.created asc")
+    List<Comment> getCommentsByItemIdIn(@Param("itemIds") List<Long> itemIds);
 }
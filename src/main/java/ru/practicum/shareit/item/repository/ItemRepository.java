@@ -1,20 +1,33 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.internal.SecondLevelCacheRegionFactory;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
+/**
+ * Списки вещей владельца и вещей по запросам кэшируются в кэше запросов Hibernate:
+ * результаты сбрасываются при любом изменении таблицы items
+ */
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerId(Long ownerId);
-
-    List<Item> findAllByNameOrDescriptionContainingIgnoreCaseAndAvailableIsTrue(String name, String description);
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = SecondLevelCacheRegionFactory.ITEM_QUERY_REGION)})
+    @Query("select i from Item i where i.owner.id = :ownerId")
+    List<Item> findAllByOwnerId(@Param("ownerId") Long ownerId);
 
     Item findByIdAndOwnerId(Long itemId, Long ownerId);
 
-    List<Item> findAllByRequestId(Long id);
+    boolean existsByRequestId(Long requestId);
 
-    List<Item> findAllByRequestIdIn(List<Long> requestIdList);
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = SecondLevelCacheRegionFactory.ITEM_QUERY_REGION)})
+    @Query("select i from Item i where i.request.id in :requestIds")
+    List<Item> findAllByRequestIdIn(@Param("requestIds") List<Long> requestIdList);
 }
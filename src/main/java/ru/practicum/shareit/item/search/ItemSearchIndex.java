@@ -0,0 +1,242 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс по названию и описанию вещей.
+ * Для запросов от трех символов кандидаты берутся из пересечения триграммных списков,
+ * для более коротких - из списка по самой подстроке: одно- и двухсимвольные подстроки индексируются целиком.
+ * Совпадение подстроки затем проверяется явно. Недоступные вещи в индекс не попадают.
+ * Изменения, сделанные внутри транзакции, применяются после ее фиксации.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemSearchIndex {
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedItem> documents = new HashMap<>();
+    private final Map<String, Set<Long>> shortGramPostings = new HashMap<>();
+    private final Map<String, Set<Long>> trigramPostings = new HashMap<>();
+    private final Map<Long, Set<Long>> ownerItems = new HashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        List<Item> items = itemRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            shortGramPostings.clear();
+            trigramPostings.clear();
+            ownerItems.clear();
+            items.forEach(i -> index(ItemMapper.toItemDto(i), i.getOwner() == null ? null : i.getOwner().getId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс вещей построен, проиндексировано {} вещей", items.size());
+    }
+
+    /**
+     * Метод для добавления или обновления вещи в индексе. Внутри транзакции вещь индексируется после ее фиксации
+     *
+     * @param item    сохраненная вещь
+     * @param ownerId идентификатор владельца вещи
+     */
+    public void put(ItemDto item, Long ownerId) {
+        afterCommit(() -> {
+            unindex(item.getId());
+            index(item, ownerId);
+        });
+    }
+
+    /**
+     * Метод для удаления вещи из индекса. Внутри транзакции вещь удаляется после ее фиксации
+     *
+     * @param itemId идентификатор вещи
+     */
+    public void remove(Long itemId) {
+        afterCommit(() -> unindex(itemId));
+    }
+
+    /**
+     * Вещи удаленного пользователя удаляются из базы каскадно, минуя сервис вещей
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isRemoved()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Set<Long> itemIds = ownerItems.get(event.getUserId());
+            if (itemIds != null) {
+                new ArrayList<>(itemIds).forEach(this::unindex);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ItemDto> search(String text) {
+        String query = SearchTokenizer.normalize(text);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ItemDto> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long id : candidates(query)) {
+                IndexedItem item = documents.get(id);
+                if (item != null && item.matches(query)) {
+                    result.add(item.toItemDto());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(Comparator.comparing(ItemDto::getId));
+        return result;
+    }
+
+    private Collection<Long> candidates(String query) {
+        if (query.length() >= SearchTokenizer.GRAM_SIZE) {
+            List<Set<Long>> postings = new ArrayList<>();
+            for (String trigram : SearchTokenizer.trigrams(query)) {
+                Set<Long> posting = trigramPostings.get(trigram);
+                if (posting == null) {
+                    return Collections.emptyList();
+                }
+                postings.add(posting);
+            }
+            postings.sort(Comparator.comparingInt(Set::size));
+            Set<Long> candidates = new HashSet<>(postings.get(0));
+            for (int i = 1; i < postings.size() && !candidates.isEmpty(); i++) {
+                candidates.retainAll(postings.get(i));
+            }
+            return candidates;
+        }
+        Set<Long> posting = shortGramPostings.get(query);
+        return posting == null ? Collections.emptyList() : new ArrayList<>(posting);
+    }
+
+    private void afterCommit(Runnable change) {
+        Runnable locked = () -> {
+            lock.writeLock().lock();
+            try {
+                change.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    locked.run();
+                }
+            });
+        } else {
+            locked.run();
+        }
+    }
+
+    private void index(ItemDto item, Long ownerId) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        IndexedItem indexedItem = new IndexedItem(item, ownerId);
+        documents.put(item.getId(), indexedItem);
+        if (ownerId != null) {
+            ownerItems.computeIfAbsent(ownerId, k -> new HashSet<>()).add(item.getId());
+        }
+        indexedItem.shortGrams().forEach(t -> shortGramPostings.computeIfAbsent(t, k -> new HashSet<>()).add(item.getId()));
+        indexedItem.trigrams().forEach(t -> trigramPostings.computeIfAbsent(t, k -> new HashSet<>()).add(item.getId()));
+    }
+
+    private void unindex(Long itemId) {
+        IndexedItem indexedItem = documents.remove(itemId);
+        if (indexedItem == null) {
+            return;
+        }
+        indexedItem.shortGrams().forEach(t -> removePosting(shortGramPostings, t, itemId));
+        indexedItem.trigrams().forEach(t -> removePosting(trigramPostings, t, itemId));
+        if (indexedItem.ownerId != null) {
+            removePosting(ownerItems, indexedItem.ownerId, itemId);
+        }
+    }
+
+    private static <K> void removePosting(Map<K, Set<Long>> postings, K key, Long itemId) {
+        Set<Long> posting = postings.get(key);
+        if (posting != null) {
+            posting.remove(itemId);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static class IndexedItem {
+        private final ItemDto source;
+        private final Long ownerId;
+        private final String name;
+        private final String description;
+
+        IndexedItem(ItemDto item, Long ownerId) {
+            this.ownerId = ownerId;
+            this.source = ItemDto.builder()
+                    .id(item.getId())
+                    .name(item.getName())
+                    .description(item.getDescription())
+                    .available(item.getAvailable())
+                    .requestId(item.getRequestId())
+                    .build();
+            this.name = SearchTokenizer.normalize(item.getName());
+            this.description = SearchTokenizer.normalize(item.getDescription());
+        }
+
+        boolean matches(String query) {
+            return Boolean.TRUE.equals(source.getAvailable()) && (name.contains(query) || description.contains(query));
+        }
+
+        Set<String> shortGrams() {
+            Set<String> grams = new HashSet<>();
+            for (int size = 1; size < SearchTokenizer.GRAM_SIZE; size++) {
+                grams.addAll(SearchTokenizer.grams(name, size));
+                grams.addAll(SearchTokenizer.grams(description, size));
+            }
+            return grams;
+        }
+
+        Set<String> trigrams() {
+            Set<String> trigrams = SearchTokenizer.trigrams(name);
+            trigrams.addAll(SearchTokenizer.trigrams(description));
+            return trigrams;
+        }
+
+        ItemDto toItemDto() {
+            return ItemDto.builder()
+                    .id(source.getId())
+                    .name(source.getName())
+                    .description(source.getDescription())
+                    .available(source.getAvailable())
+                    .requestId(source.getRequestId())
+                    .build();
+        }
+    }
+}
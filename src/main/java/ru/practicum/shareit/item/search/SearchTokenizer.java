@@ -0,0 +1,65 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class SearchTokenizer {
+    public static final int GRAM_SIZE = 3;
+
+    public static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Метод для разбиения текста на слова, состоящие из букв и цифр
+     *
+     * @param text исходный текст
+     * @return множество слов в нижнем регистре
+     */
+    public static Set<String> tokens(String text) {
+        Set<String> tokens = new HashSet<>();
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Метод для разбиения текста на триграммы (подстроки из трех символов)
+     *
+     * @param text исходный текст
+     * @return множество триграмм в нижнем регистре
+     */
+    public static Set<String> trigrams(String text) {
+        return grams(text, GRAM_SIZE);
+    }
+
+    /**
+     * Метод для разбиения текста на подстроки заданной длины
+     *
+     * @param text исходный текст
+     * @param size длина подстроки
+     * @return множество подстрок в нижнем регистре
+     */
+    public static Set<String> grams(String text, int size) {
+        Set<String> grams = new HashSet<>();
+        String normalized = normalize(text);
+        for (int i = 0; i + size <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + size));
+        }
+        return grams;
+    }
+}
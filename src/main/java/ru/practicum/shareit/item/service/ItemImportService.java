@@ -0,0 +1,213 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.matching.RequestMatcher;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceGuard;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт вещей владельца из JSON-массива или NDJSON. Тело запроса читается потоково,
+ * каждая строка проверяется так же, как при создании одной вещи. Вещи сохраняются порциями по batchSize,
+ * каждая порция - отдельная транзакция с пакетной вставкой; запросы вещей загружаются одним запросом на порцию.
+ * Ошибка в строке не прерывает импорт и возвращается в результате для этой строки
+ */
+@Service
+@Slf4j
+public class ItemImportService {
+    private final ItemRepository itemStorage;
+    private final UserRepository userStorage;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final RequestMatcher requestMatcher;
+    private final UserExistenceGuard userExistenceGuard;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxRows;
+
+    public ItemImportService(ItemRepository itemStorage,
+                             UserRepository userStorage,
+                             ItemRequestRepository itemRequestRepository,
+                             ItemSearchIndex itemSearchIndex,
+                             RequestMatcher requestMatcher,
+                             UserExistenceGuard userExistenceGuard,
+                             EntityManager entityManager,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${shareit.items.import.batch-size:500}") int batchSize,
+                             @Value("${shareit.items.import.max-rows:100000}") int maxRows) {
+        this.itemStorage = itemStorage;
+        this.userStorage = userStorage;
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.requestMatcher = requestMatcher;
+        this.userExistenceGuard = userExistenceGuard;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Метод для импорта вещей пользователя
+     *
+     * @param userId идентификатор владельца
+     * @param body   JSON-массив вещей или вещи в формате NDJSON
+     * @return результат импорта по каждой строке
+     */
+    public ItemImportResultDto importItems(Long userId, InputStream body) throws IOException {
+        if (!userExistenceGuard.exists(userId)) {
+            throw new NotFoundException("This user was not found");
+        }
+        List<ItemImportRowDto> rows = new ArrayList<>();
+        Map<Integer, ItemDto> batch = new LinkedHashMap<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            int row = 0;
+            while (token != null && token != JsonToken.END_ARRAY) {
+                row++;
+                if (row > maxRows) {
+                    rows.add(error(row, "No more than " + maxRows + " items can be imported at once"));
+                    break;
+                }
+                JsonNode node;
+                try {
+                    node = parser.readValueAsTree();
+                } catch (JsonParseException e) {
+                    rows.add(error(row, "Malformed JSON: " + e.getOriginalMessage()));
+                    break;
+                }
+                String problem = readItem(node, row, batch);
+                if (problem != null) {
+                    rows.add(error(row, problem));
+                }
+                if (batch.size() == batchSize) {
+                    rows.addAll(saveBatch(userId, batch));
+                    batch.clear();
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonParseException e) {
+            rows.add(error(rows.size() + batch.size() + 1, "Malformed JSON: " + e.getOriginalMessage()));
+        }
+        if (!batch.isEmpty()) {
+            rows.addAll(saveBatch(userId, batch));
+        }
+        rows.sort(Comparator.comparing(ItemImportRowDto::getRow));
+        int failed = (int) rows.stream().filter(r -> r.getError() != null).count();
+        log.info("Импорт вещей пользователя {}: сохранено {}, ошибок {}", userId, rows.size() - failed, failed);
+        return ItemImportResultDto.builder()
+                .total(rows.size())
+                .imported(rows.size() - failed)
+                .failed(failed)
+                .rows(rows)
+                .build();
+    }
+
+    private String readItem(JsonNode node, int row, Map<Integer, ItemDto> batch) {
+        ItemDto item;
+        try {
+            item = objectMapper.treeToValue(node, ItemDto.class);
+        } catch (JsonProcessingException e) {
+            return "Invalid item: " + e.getOriginalMessage();
+        }
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        batch.put(row, item);
+        return null;
+    }
+
+    private List<ItemImportRowDto> saveBatch(Long userId, Map<Integer, ItemDto> batch) {
+        List<ItemImportRowDto> rows = new ArrayList<>();
+        Map<Integer, ItemDto> saved = new LinkedHashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> requestIds = batch.values().stream()
+                        .map(ItemDto::getRequestId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet());
+                Map<Long, ItemRequest> requests = new HashMap<>();
+                if (!requestIds.isEmpty()) {
+                    itemRequestRepository.findAllById(requestIds).forEach(r -> requests.put(r.getId(), r));
+                }
+                Map<Integer, Item> items = new LinkedHashMap<>();
+                batch.forEach((row, dto) -> {
+                    if (dto.getRequestId() != null && !requests.containsKey(dto.getRequestId())) {
+                        rows.add(error(row, "This request was not found"));
+                        return;
+                    }
+                    Item item = ItemMapper.toItem(dto);
+                    item.setId(null);
+                    item.setOwner(userStorage.getReferenceById(userId));
+                    item.setRequest(dto.getRequestId() == null ? null : requests.get(dto.getRequestId()));
+                    items.put(row, item);
+                });
+                itemStorage.saveAll(items.values());
+                itemStorage.flush();
+                items.forEach((row, item) -> saved.put(row, ItemMapper.toItemDto(item)));
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            log.warn("Не удалось сохранить порцию импорта вещей пользователя {}", userId, e);
+            List<ItemImportRowDto> failed = new ArrayList<>();
+            batch.keySet().forEach(row -> failed.add(error(row, "Item was not saved: " + e.getMessage())));
+            return failed;
+        }
+        saved.forEach((row, item) -> {
+            itemSearchIndex.put(item, userId);
+            if (item.getRequestId() != null) {
+                requestMatcher.close(item.getRequestId());
+            } else {
+                requestMatcher.match(item, userId);
+            }
+            rows.add(ItemImportRowDto.builder().row(row).itemId(item.getId()).build());
+        });
+        return rows;
+    }
+
+    private static ItemImportRowDto error(int row, String message) {
+        return ItemImportRowDto.builder().row(row).error(message).build();
+    }
+}
@@ -1,25 +1,33 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.dto.IntervalDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exceptions.InvalidArgumentsException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.matching.RequestMatcher;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceGuard;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
@@ -29,77 +37,89 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class ItemService {
+    private static final long DEFAULT_AVAILABILITY_WINDOW_DAYS = 30;
+
     private final ItemRepository itemStorage;
     private final UserRepository userStorage;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
 
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemViewCache itemViewCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final RequestMatcher requestMatcher;
+    private final UserExistenceGuard userExistenceGuard;
 
     public List<ItemWithCommentDto> getAllItems(Long userId) {
-        if (!userStorage.existsById(userId)) {
+        if (!userExistenceGuard.exists(userId)) {
             throw new NotFoundException("This user was not found");
         }
-        List<ItemWithCommentDto> itemWithCommentDtoList = ItemMapper.toItemWithCommentDtoList(itemStorage.findAllByOwnerId(userId));
-        List<Long> itemIdList = itemStorage.findAllByOwnerId(userId).stream().map(Item::getId).collect(Collectors.toList());
-        List<Comment> commentList = commentRepository.getCommentsByItemIdIn(itemIdList);
-        List<Booking> bookings = bookingRepository.getBookingsByItemIdInOrderByStartDateAsc(itemIdList);
-        Map<Long, List<Comment>> commentsForCurrentItem = new HashMap<>();
-        Map<Long, List<Booking>> bookingsForCurrentItem = new HashMap<>();
-        itemIdList.forEach(i -> {
-            commentsForCurrentItem.put(i, commentList.stream().filter(c -> c.getItemId().equals(i)).collect(Collectors.toList()));
-            bookingsForCurrentItem.put(i, bookings.stream().filter(b -> b.getItem().getId().equals(i)).collect(Collectors.toList()));
-        });
-        itemWithCommentDtoList.forEach(i -> {
-            if (commentsForCurrentItem.containsKey(i.getId())) {
-                i.setComments(CommentMapper.toCommentDtoList(commentsForCurrentItem.get(i.getId())));
-            }
-            i.setNextBooking(BookingMapper.toBookingSimplyDto(bookingsForCurrentItem.get(i.getId()).isEmpty() ? null
-                    : bookingsForCurrentItem.get(i.getId()).get(1)));
-            i.setLastBooking(BookingMapper.toBookingSimplyDto(bookingsForCurrentItem.get(i.getId()).isEmpty() ? null
-                    : bookingsForCurrentItem.get(i.getId()).get(0)));
-        });
-        return itemWithCommentDtoList;
+        Map<Long, ItemWithCommentDto> itemsById = new LinkedHashMap<>();
+        itemStorage.findAllByOwnerId(userId).forEach(i -> itemsById.put(i.getId(), ItemMapper.toItemWithCommentDto(i)));
+        if (itemsById.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> itemIdList = new ArrayList<>(itemsById.keySet());
+        commentRepository.getCommentsByItemIdIn(itemIdList)
+                .forEach(c -> itemsById.get(c.getItemId()).getComments().add(CommentMapper.toCommentDto(c)));
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.findLastBookings(itemIdList, now, BookingStatus.APPROVED)
+                .forEach(b -> itemsById.get(b.getItemId()).setLastBooking(b));
+        bookingRepository.findNextBookings(itemIdList, now, BookingStatus.APPROVED)
+                .forEach(b -> itemsById.get(b.getItemId()).setNextBooking(b));
+        return new ArrayList<>(itemsById.values());
     }
 
     public ItemWithCommentDto getItem(Long itemId, Long userId) {
-        userStorage.findById(userId).orElseThrow(() -> new NotFoundException("This user was not found"));
+        if (!userExistenceGuard.exists(userId)) {
+            throw new NotFoundException("This user was not found");
+        }
+        ItemWithCommentDto cachedItem = itemViewCache.get(itemId, userId);
+        if (cachedItem != null) {
+            return cachedItem;
+        }
+        long cacheVersion = itemViewCache.version();
         Item item = itemStorage.findById(itemId).orElseThrow(() -> new NotFoundException("This item was not found"));
         ItemWithCommentDto itemWithCommentDto = ItemMapper.toItemWithCommentDto(item);
-        if (commentRepository.existsByItemId(itemId)) {
-            itemWithCommentDto.setComments(CommentMapper.toCommentDtoList(commentRepository.getCommentsByItemId(itemId)));
-        }
-        if (Objects.equals(item.getOwner().getId(), userId)) {
-            if (!(bookingRepository.findAllByStartDateIsAfterAndItemIdAndStatusOrderByStartDateAsc(LocalDateTime.now(),
-                    itemWithCommentDto.getId(), BookingStatus.APPROVED)).isEmpty()) {
-                itemWithCommentDto.setNextBooking(BookingMapper.toBookingSimplyDto(bookingRepository.findAllByStartDateIsAfterAndItemIdAndStatusOrderByStartDateAsc(LocalDateTime.now(),
-                        itemWithCommentDto.getId(), BookingStatus.APPROVED).get(0)));
-            }
-
-            if (!(bookingRepository.findAllByStartDateIsBeforeAndItemIdAndStatusOrderByStartDateDesc(LocalDateTime.now(),
-                    itemWithCommentDto.getId(), BookingStatus.APPROVED)).isEmpty()) {
-                itemWithCommentDto.setLastBooking(BookingMapper.toBookingSimplyDto(bookingRepository.findAllByStartDateIsBeforeAndItemIdAndStatusOrderByStartDateDesc(LocalDateTime.now(),
-                        itemWithCommentDto.getId(), BookingStatus.APPROVED).get(0)));
-            }
+        List<Comment> comments = commentRepository.getCommentsByItemId(itemId);
+        itemWithCommentDto.setComments(CommentMapper.toCommentDtoList(comments));
+        boolean isOwner = Objects.equals(item.getOwner().getId(), userId);
+        if (isOwner) {
+            LocalDateTime now = LocalDateTime.now();
+            itemWithCommentDto.setLastBooking(bookingRepository.findLastBooking(itemId, now, BookingStatus.APPROVED).orElse(null));
+            itemWithCommentDto.setNextBooking(bookingRepository.findNextBooking(itemId, now, BookingStatus.APPROVED).orElse(null));
         }
+        Set<Long> commentAuthorIds = comments.stream().map(c -> c.getAuthor().getId()).collect(Collectors.toSet());
+        itemViewCache.put(itemId, item.getOwner().getId(), commentAuthorIds, isOwner, itemWithCommentDto, cacheVersion);
         return itemWithCommentDto;
     }
 
     @Transactional
     public ItemDto addItem(Long userId, ItemDto item) {
-        User owner = userStorage.findById(userId).orElseThrow(() -> new NotFoundException("This user was not found"));
+        if (!userExistenceGuard.exists(userId)) {
+            throw new NotFoundException("This user was not found");
+        }
 
         Item newItem = ItemMapper.toItem(item);
-        newItem.setOwner(owner);
+        newItem.setOwner(userStorage.getReferenceById(userId));
         if (item.getRequestId() != null) {
             newItem.setRequest(itemRequestRepository.findById(item.getRequestId()).orElseThrow(() -> new NotFoundException("This request was not found")));
         }
-        return ItemMapper.toItemDto(itemStorage.save(newItem));
+        ItemDto savedItem = ItemMapper.toItemDto(itemStorage.save(newItem));
+        itemSearchIndex.put(savedItem, userId);
+        if (savedItem.getRequestId() != null) {
+            requestMatcher.close(savedItem.getRequestId());
+        } else {
+            requestMatcher.submit(savedItem, userId);
+        }
+        return savedItem;
     }
 
     @Transactional
     public ItemDto updateItem(Long userId, Long itemId, ItemDto item) {
-        if (!userStorage.existsById(userId)) {
+        if (!userExistenceGuard.exists(userId)) {
             throw new NotFoundException("This user was not found");
         }
         if (!itemStorage.existsById(itemId)) {
@@ -115,24 +135,73 @@ public class ItemService {
                 .available(item.getAvailable() != null ? item.getAvailable() : savedItem.getAvailable())
                 .description(item.getDescription() != null ? item.getDescription() : savedItem.getDescription())
                 .owner(savedItem.getOwner())
+                .request(savedItem.getRequest())
                 .build();
-        return ItemMapper.toItemDto(itemStorage.save(updateItem));
+        ItemDto updatedItem = ItemMapper.toItemDto(itemStorage.save(updateItem));
+        itemSearchIndex.put(updatedItem, userId);
+        requestMatcher.submit(updatedItem, userId);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
+        return updatedItem;
     }
 
+    /**
+     * Метод для удаления вещи. Если это была единственная вещь, предложенная на запрос,
+     * запрос снова становится открытым и участвует в сопоставлении
+     *
+     * @param itemId идентификатор вещи
+     * @return true, если вещь удалена
+     */
     @Transactional
     public Boolean deleteItem(Long itemId) {
+        Item item = itemStorage.findById(itemId).orElseThrow(() -> new NotFoundException("This item was not found"));
+        ItemRequest request = item.getRequest();
+        itemStorage.delete(item);
+        itemSearchIndex.remove(itemId);
+        requestMatcher.removeItem(itemId);
+        bookingIntervalIndex.removeItem(itemId);
+        if (request != null && !itemStorage.existsByRequestId(request.getId())) {
+            requestMatcher.put(request);
+        }
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
+        return !itemStorage.existsById(itemId);
+    }
+
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
         if (!itemStorage.existsById(itemId)) {
             throw new NotFoundException("This item was not found");
         }
-        itemStorage.deleteById(itemId);
-        return !itemStorage.existsById(itemId);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowStart = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime windowEnd = to == null ? windowStart.plusDays(DEFAULT_AVAILABILITY_WINDOW_DAYS) : to;
+        if (!windowEnd.isAfter(windowStart)) {
+            throw new InvalidArgumentsException("'to' should be after 'from' and in the future");
+        }
+        List<IntervalDto> busy = bookingIntervalIndex.getBusyIntervals(itemId, windowStart, windowEnd);
+        List<IntervalDto> free = new ArrayList<>();
+        LocalDateTime freeStart = windowStart;
+        for (IntervalDto interval : busy) {
+            if (interval.getStart().isAfter(freeStart)) {
+                free.add(new IntervalDto(freeStart, interval.getStart()));
+            }
+            freeStart = interval.getEnd();
+        }
+        if (windowEnd.isAfter(freeStart)) {
+            free.add(new IntervalDto(freeStart, windowEnd));
+        }
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(windowStart)
+                .to(windowEnd)
+                .busy(busy)
+                .free(free)
+                .build();
     }
 
     public List<ItemDto> searchItems(String text) {
         if (text == null || text.isEmpty()) {
             return Collections.emptyList();
         }
-        return ItemMapper.toItemDtoList(itemStorage.findAllByNameOrDescriptionContainingIgnoreCaseAndAvailableIsTrue(text, text));
+        return itemSearchIndex.search(text);
     }
 
     @Transactional
@@ -147,7 +216,9 @@ public class ItemService {
             commentDto.setItemId(itemId);
             commentDto.setCreated(LocalDateTime.now());
 
-            return CommentMapper.toCommentDto(commentRepository.save(CommentMapper.toComment(commentDto, user)));
+            CommentDto savedComment = CommentMapper.toCommentDto(commentRepository.save(CommentMapper.toComment(commentDto, user)));
+            eventPublisher.publishEvent(new ItemChangedEvent(itemId));
+            return savedComment;
         } else {
             throw new InvalidArgumentsException("This user never rent this item");
         }
@@ -0,0 +1,212 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.dto.BookingSimplyDto;
+import ru.practicum.shareit.internal.dto.CacheStatsDto;
+import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Кэш собранных представлений вещи для GET /items/{itemId}.
+ * Представление для владельца (с последним и следующим бронированием) и для остальных пользователей
+ * хранятся отдельно, размер кэша ограничен, записи устаревают по истечении ttl.
+ * Изменение пользователя сбрасывает только представления, в которых он виден: вещи, которыми он владеет,
+ * и вещи с его комментариями.
+ */
+@Component
+public class ItemViewCache {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    public ItemViewCache(@Value("${shareit.cache.item-view.max-size:10000}") int maxSize,
+                         @Value("${shareit.cache.item-view.ttl:60s}") Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > ItemViewCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Метод для получения представления вещи из кэша
+     *
+     * @param itemId идентификатор вещи
+     * @param userId идентификатор пользователя, запрашивающего вещь
+     * @return копия представления вещи или null, если подходящей записи нет
+     */
+    public synchronized ItemWithCommentDto get(Long itemId, Long userId) {
+        ItemWithCommentDto ownerView = lookup(new Key(itemId, true), userId, true);
+        if (ownerView == null) {
+            ItemWithCommentDto publicView = lookup(new Key(itemId, false), userId, false);
+            if (publicView == null) {
+                misses++;
+                return null;
+            }
+            ownerView = publicView;
+        }
+        hits++;
+        return copy(ownerView);
+    }
+
+    /**
+     * Метод для получения текущей версии кэша. Версию нужно запомнить до чтения данных из базы
+     * и передать в {@link #put}, чтобы не сохранить представление, устаревшее из-за параллельной инвалидации
+     *
+     * @return текущая версия кэша
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Метод для сохранения представления вещи в кэше
+     *
+     * @param itemId           идентификатор вещи
+     * @param ownerId          идентификатор владельца вещи
+     * @param commentAuthorIds идентификаторы авторов комментариев к вещи
+     * @param ownerView        true, если это представление для владельца
+     * @param item             представление вещи
+     * @param readVersion      версия кэша, полученная до чтения данных из базы
+     */
+    public synchronized void put(Long itemId, Long ownerId, Collection<Long> commentAuthorIds, boolean ownerView,
+                                 ItemWithCommentDto item, long readVersion) {
+        if (readVersion != version || maxSize <= 0) {
+            return;
+        }
+        entries.put(new Key(itemId, ownerView),
+                new Entry(ownerId, Set.copyOf(commentAuthorIds), copy(item), System.nanoTime() + ttlNanos));
+    }
+
+    public synchronized void invalidate(Long itemId) {
+        version++;
+        invalidations++;
+        entries.remove(new Key(itemId, true));
+        entries.remove(new Key(itemId, false));
+    }
+
+    public synchronized void invalidateAll() {
+        version++;
+        invalidations++;
+        entries.clear();
+    }
+
+    /**
+     * Метод для сброса представлений, в которых виден пользователь. Вместе с удаленным пользователем
+     * удаляются и его бронирования, поэтому для него сбрасываются также вещи, где он автор последнего
+     * или следующего бронирования
+     *
+     * @param userId  идентификатор пользователя
+     * @param removed true, если пользователь удален
+     */
+    public synchronized void invalidateUser(Long userId, boolean removed) {
+        version++;
+        invalidations++;
+        entries.values().removeIf(entry -> entry.involves(userId, removed));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        invalidate(event.getItemId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidateUser(event.getUserId(), event.isRemoved());
+    }
+
+    public synchronized CacheStatsDto getStats() {
+        long requests = hits + misses;
+        return CacheStatsDto.builder()
+                .name("item-view")
+                .size(entries.size())
+                .maxSize(maxSize)
+                .hits(hits)
+                .misses(misses)
+                .evictions(evictions)
+                .expirations(expirations)
+                .invalidations(invalidations)
+                .hitRatio(requests == 0 ? 0.0 : (double) hits / requests)
+                .build();
+    }
+
+    private ItemWithCommentDto lookup(Key key, Long userId, boolean ownerView) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt - System.nanoTime() <= 0) {
+            entries.remove(key);
+            expirations++;
+            return null;
+        }
+        return Objects.equals(entry.ownerId, userId) == ownerView ? entry.item : null;
+    }
+
+    private static ItemWithCommentDto copy(ItemWithCommentDto item) {
+        return ItemWithCommentDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .ownerId(item.getOwnerId())
+                .request(item.getRequest())
+                .nextBooking(item.getNextBooking())
+                .lastBooking(item.getLastBooking())
+                .comments(item.getComments() == null ? null : new ArrayList<>(item.getComments()))
+                .build();
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+        private final Long itemId;
+        private final boolean ownerView;
+    }
+
+    @RequiredArgsConstructor
+    private static final class Entry {
+        private final Long ownerId;
+        private final Set<Long> commentAuthorIds;
+        private final ItemWithCommentDto item;
+        private final long expiresAt;
+
+        boolean involves(Long userId, boolean removed) {
+            if (Objects.equals(ownerId, userId) || commentAuthorIds.contains(userId)) {
+                return true;
+            }
+            return removed && (isBooker(item.getLastBooking(), userId) || isBooker(item.getNextBooking(), userId));
+        }
+
+        private static boolean isBooker(BookingSimplyDto booking, Long userId) {
+            return booking != null && Objects.equals(booking.getBookerId(), userId);
+        }
+    }
+}
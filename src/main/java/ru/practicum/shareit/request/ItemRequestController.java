@@ -3,6 +3,7 @@ package ru.practicum.shareit.request;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import javax.validation.Valid;
@@ -29,6 +30,11 @@ public class ItemRequestController {
         return itemRequestService.getRequestsForCurrentUser(userId);
     }
 
+    @GetMapping("/matches")
+    public List<RequestMatchDto> getMatches(@RequestHeader(OWNER_ID) Long userId) {
+        return itemRequestService.getMatches(userId);
+    }
+
     @GetMapping("/{requestId}")
     public ItemRequestDto getRequest(@RequestHeader(OWNER_ID) Long userId, @PathVariable Long requestId) {
         return itemRequestService.getRequest(userId, requestId);
@@ -0,0 +1,314 @@
+package ru.practicum.shareit.request.matching;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.SearchTokenizer;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Индекс описаний открытых запросов (запросов, на которые еще не предложено ни одной вещи).
+ * Сохраненная вещь сравнивается с запросами по общим словам, лучшие совпадения попадают
+ * во входящие ограниченного размера у автора запроса.
+ * Изменения, сделанные внутри транзакции, применяются после ее фиксации.
+ * Вместе с пользователем база удаляет его запросы и вещи: вещи убираются из входящих,
+ * а запросы, на которые отвечали только его вещи, снова становятся открытыми.
+ */
+@Component
+@Slf4j
+public class RequestMatcher {
+    private static final int MIN_TOKEN_LENGTH = 3;
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final double minScore;
+    private final int maxMatchesPerItem;
+    private final int inboxSize;
+
+    private final Map<Long, OpenRequest> requests = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Deque<RequestMatchDto>> inboxes = new HashMap<>();
+    private final Map<Long, Set<Long>> itemRequestors = new HashMap<>();
+    private final Map<Long, Long> itemOwners = new HashMap<>();
+    private final Map<Long, Set<Long>> ownerItems = new HashMap<>();
+
+    public RequestMatcher(ItemRequestRepository itemRequestRepository,
+                          @Value("${shareit.requests.matching.min-score:0.5}") double minScore,
+                          @Value("${shareit.requests.matching.max-matches-per-item:5}") int maxMatchesPerItem,
+                          @Value("${shareit.requests.matching.inbox-size:50}") int inboxSize) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.minScore = minScore;
+        this.maxMatchesPerItem = maxMatchesPerItem;
+        this.inboxSize = inboxSize;
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        List<ItemRequest> openRequests = itemRequestRepository.findAllOpen();
+        requests.clear();
+        postings.clear();
+        openRequests.forEach(this::index);
+        log.info("Индекс открытых запросов построен, проиндексировано {} запросов", openRequests.size());
+    }
+
+    /**
+     * Метод для добавления открытого запроса в индекс. Внутри транзакции запрос индексируется после ее фиксации
+     *
+     * @param request сохраненный запрос
+     */
+    public void put(ItemRequest request) {
+        Long requestId = request.getId();
+        OpenRequest openRequest = new OpenRequest(request.getRequestor().getId(), request.getDescription(),
+                tokens(request.getDescription()));
+        afterCommit(() -> {
+            unindex(requestId);
+            index(requestId, openRequest);
+        });
+    }
+
+    /**
+     * Метод для исключения запроса из индекса, например после того, как на него предложили вещь.
+     * Внутри транзакции запрос исключается после ее фиксации
+     *
+     * @param requestId идентификатор запроса
+     */
+    public void close(Long requestId) {
+        afterCommit(() -> unindex(requestId));
+    }
+
+    /**
+     * Метод для сопоставления вещи с открытыми запросами, как {@link #match}.
+     * Внутри транзакции сопоставление выполняется после ее фиксации
+     *
+     * @param item    сохраненная вещь
+     * @param ownerId идентификатор владельца вещи
+     */
+    public void submit(ItemDto item, Long ownerId) {
+        afterCommit(() -> match(item, ownerId));
+    }
+
+    /**
+     * Метод для сопоставления сохраненной вещи с открытыми запросами. Оценка совпадения - доля слов описания
+     * запроса, встречающихся в названии или описании вещи. Запросы владельца вещи не учитываются
+     *
+     * @param item    сохраненная вещь
+     * @param ownerId идентификатор владельца вещи
+     * @return найденные совпадения, от лучшего к худшему
+     */
+    public synchronized List<RequestMatchDto> match(ItemDto item, Long ownerId) {
+        dropItem(item.getId());
+        if (!Boolean.TRUE.equals(item.getAvailable()) || item.getRequestId() != null) {
+            return Collections.emptyList();
+        }
+        Set<String> itemTokens = tokens(item.getName() + " " + item.getDescription());
+        Map<Long, Integer> hits = new HashMap<>();
+        for (String token : itemTokens) {
+            Set<Long> posting = postings.get(token);
+            if (posting != null) {
+                posting.forEach(requestId -> hits.merge(requestId, 1, Integer::sum));
+            }
+        }
+        List<RequestMatchDto> matches = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        hits.forEach((requestId, count) -> {
+            OpenRequest request = requests.get(requestId);
+            double score = (double) count / request.tokens.size();
+            if (score >= minScore && !Objects.equals(request.requestorId, ownerId)) {
+                matches.add(RequestMatchDto.builder()
+                        .requestId(requestId)
+                        .requestDescription(request.description)
+                        .item(copy(item))
+                        .score(score)
+                        .matched(now)
+                        .build());
+            }
+        });
+        matches.sort(Comparator.comparingDouble(RequestMatchDto::getScore).reversed()
+                .thenComparing(RequestMatchDto::getRequestId));
+        List<RequestMatchDto> best = matches.size() > maxMatchesPerItem ? matches.subList(0, maxMatchesPerItem) : matches;
+        best.forEach(m -> deliver(requests.get(m.getRequestId()).requestorId, m));
+        if (!best.isEmpty()) {
+            itemOwners.put(item.getId(), ownerId);
+            ownerItems.computeIfAbsent(ownerId, id -> new HashSet<>()).add(item.getId());
+        }
+        return new ArrayList<>(best);
+    }
+
+    /**
+     * Метод для удаления вещи из входящих всех пользователей. Внутри транзакции вещь удаляется после ее фиксации
+     *
+     * @param itemId идентификатор вещи
+     */
+    public void removeItem(Long itemId) {
+        afterCommit(() -> dropItem(itemId));
+    }
+
+    /**
+     * Метод для получения совпадений по запросам пользователя, от новых к старым
+     *
+     * @param requestorId идентификатор автора запросов
+     * @return список совпадений
+     */
+    public synchronized List<RequestMatchDto> getInbox(Long requestorId) {
+        Deque<RequestMatchDto> inbox = inboxes.get(requestorId);
+        return inbox == null ? new ArrayList<>() : new ArrayList<>(inbox);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserChanged(UserChangedEvent event) {
+        if (!event.isRemoved()) {
+            return;
+        }
+        Deque<RequestMatchDto> inbox = inboxes.remove(event.getUserId());
+        if (inbox != null) {
+            inbox.forEach(m -> removeRequestor(m.getItem().getId(), event.getUserId()));
+        }
+        Set<Long> itemIds = ownerItems.get(event.getUserId());
+        if (itemIds != null) {
+            new ArrayList<>(itemIds).forEach(this::dropItem);
+        }
+        List<Long> requestIds = new ArrayList<>();
+        requests.forEach((id, request) -> {
+            if (Objects.equals(request.requestorId, event.getUserId())) {
+                requestIds.add(id);
+            }
+        });
+        requestIds.forEach(this::unindex);
+        itemRequestRepository.findAllOpen().stream()
+                .filter(request -> !requests.containsKey(request.getId()))
+                .forEach(this::index);
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    synchronized (RequestMatcher.this) {
+                        change.run();
+                    }
+                }
+            });
+        } else {
+            synchronized (this) {
+                change.run();
+            }
+        }
+    }
+
+    private void unindex(Long requestId) {
+        OpenRequest request = requests.remove(requestId);
+        if (request == null) {
+            return;
+        }
+        for (String token : request.tokens) {
+            Set<Long> posting = postings.get(token);
+            if (posting != null) {
+                posting.remove(requestId);
+                if (posting.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    /**
+     * Вещь удаляется только из входящих тех пользователей, которым она была доставлена
+     */
+    private void dropItem(Long itemId) {
+        Long ownerId = itemOwners.remove(itemId);
+        if (ownerId != null) {
+            Set<Long> itemIds = ownerItems.get(ownerId);
+            itemIds.remove(itemId);
+            if (itemIds.isEmpty()) {
+                ownerItems.remove(ownerId);
+            }
+        }
+        Set<Long> requestorIds = itemRequestors.remove(itemId);
+        if (requestorIds == null) {
+            return;
+        }
+        for (Long requestorId : requestorIds) {
+            Deque<RequestMatchDto> inbox = inboxes.get(requestorId);
+            if (inbox != null) {
+                inbox.removeIf(m -> Objects.equals(m.getItem().getId(), itemId));
+                if (inbox.isEmpty()) {
+                    inboxes.remove(requestorId);
+                }
+            }
+        }
+    }
+
+    private void deliver(Long requestorId, RequestMatchDto match) {
+        Deque<RequestMatchDto> inbox = inboxes.computeIfAbsent(requestorId, id -> new ArrayDeque<>());
+        inbox.addFirst(match);
+        itemRequestors.computeIfAbsent(match.getItem().getId(), id -> new HashSet<>()).add(requestorId);
+        while (inbox.size() > inboxSize) {
+            Long evictedItemId = inbox.removeLast().getItem().getId();
+            if (inbox.stream().noneMatch(m -> Objects.equals(m.getItem().getId(), evictedItemId))) {
+                removeRequestor(evictedItemId, requestorId);
+            }
+        }
+    }
+
+    private void removeRequestor(Long itemId, Long requestorId) {
+        Set<Long> requestorIds = itemRequestors.get(itemId);
+        if (requestorIds != null) {
+            requestorIds.remove(requestorId);
+            if (requestorIds.isEmpty()) {
+                itemRequestors.remove(itemId);
+            }
+        }
+    }
+
+    private void index(ItemRequest request) {
+        index(request.getId(), new OpenRequest(request.getRequestor().getId(), request.getDescription(),
+                tokens(request.getDescription())));
+    }
+
+    private void index(Long requestId, OpenRequest request) {
+        if (request.tokens.isEmpty()) {
+            return;
+        }
+        requests.put(requestId, request);
+        request.tokens.forEach(t -> postings.computeIfAbsent(t, k -> new HashSet<>()).add(requestId));
+    }
+
+    private static Set<String> tokens(String text) {
+        Set<String> tokens = SearchTokenizer.tokens(text);
+        tokens.removeIf(t -> t.length() < MIN_TOKEN_LENGTH);
+        return tokens;
+    }
+
+    private static ItemDto copy(ItemDto item) {
+        return ItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .ownerId(item.getOwnerId())
+                .build();
+    }
+
+    private static final class OpenRequest {
+        private final Long requestorId;
+        private final String description;
+        private final Set<String> tokens;
+
+        OpenRequest(Long requestorId, String description, Set<String> tokens) {
+            this.requestorId = requestorId;
+            this.description = description;
+            this.tokens = tokens;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
@@ -13,4 +14,8 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
     List<ItemRequest> getItemRequestsByRequestorOrderByCreateDateDesc(User requestor);
 
     List<ItemRequest> getItemRequestsByRequestorIsNot(User user, PageRequest pageRequest);
+
+    @Query("select r from ItemRequest r where r.requestor is not null " +
+            "and not exists (select i.id from Item i where i.request = r)")
+    List<ItemRequest> findAllOpen();
 }
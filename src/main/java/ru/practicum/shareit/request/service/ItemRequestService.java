@@ -6,23 +6,26 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exceptions.InvalidArgumentsException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.matching.RequestMatcher;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceGuard;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -30,47 +33,77 @@ public class ItemRequestService {
     private final UserRepository userRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRepository itemRepository;
+    private final RequestMatcher requestMatcher;
+    private final UserExistenceGuard userExistenceGuard;
 
     public List<ItemRequestDto> findAllRequests(Long userId, Integer from, Integer size) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("This user was not found"));
+        User user = getUserReference(userId);
         if (from < 0 || size <= 0) {
             throw new InvalidArgumentsException("'from' and 'size' should be positive");
         }
-        List<ItemRequestDto> requestsToReturn = ItemRequestMapper.toItemRequestDtoList(itemRequestRepository.getItemRequestsByRequestorIsNot(user,
+        return withItems(itemRequestRepository.getItemRequestsByRequestorIsNot(user,
                 PageRequest.of((from / size), size, Sort.by("createDate").descending())));
-        List<Long> requestIdList = itemRequestRepository.getItemRequestsByRequestorIsNot(user,
-                        PageRequest.of((from / size), size, Sort.by("createDate").descending())).stream()
-                .map(ItemRequest::getId).collect(Collectors.toList());
-        List<Item> items = itemRepository.findAllByRequestIdIn(requestIdList);
-        Map<Long, List<Item>> itemsForCurrentRequest = new HashMap<>();
-        requestIdList.forEach(id -> itemsForCurrentRequest.put(id, items.stream()
-                .filter(i -> i.getRequest().getId().equals(id)).collect(Collectors.toList())));
-        requestsToReturn.forEach(r -> r.setItems(ItemMapper.toItemDtoList(itemsForCurrentRequest.get(r.getId()))));
-        return requestsToReturn.stream().filter(r -> !Objects.equals(r.getRequestOwnerId(), userId))
-                .collect(Collectors.toList());
     }
 
     public List<ItemRequestDto> getRequestsForCurrentUser(Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("This user was not found"));
-        List<ItemRequestDto> requestsToReturn = ItemRequestMapper.toItemRequestDtoList(itemRequestRepository.getItemRequestsByRequestorOrderByCreateDateDesc(user));
-        requestsToReturn.forEach(r -> r.setItems(ItemMapper.toItemDtoList(itemRepository.findAllByRequestId(r.getId()))));
-        return requestsToReturn;
+        User user = getUserReference(userId);
+        return withItems(itemRequestRepository.getItemRequestsByRequestorOrderByCreateDateDesc(user));
     }
 
     public ItemRequestDto getRequest(Long userId, Long requestId) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("This user was not found"));
+        checkUserExists(userId);
         ItemRequest request = itemRequestRepository.findById(requestId).orElseThrow(() -> new NotFoundException("This request was not found"));
-        ItemRequestDto requestToReturn = ItemRequestMapper.toItemRequestDto(request);
-        requestToReturn.setItems(ItemMapper.toItemDtoList(itemRepository.findAllByRequestId(requestId)));
-        return requestToReturn;
+        return withItems(List.of(request)).get(0);
     }
 
     @Transactional
     public ItemRequestDto addRequest(Long userId, ItemRequestDto itemRequestDto) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("This user was not found"));
+        User user = getUserReference(userId);
         ItemRequest itemRequest = ItemRequestMapper.toItemRequest(itemRequestDto);
         itemRequest.setRequestor(user);
         itemRequest.setCreateDate(LocalDateTime.now());
-        return ItemRequestMapper.toItemRequestDto(itemRequestRepository.save(itemRequest));
+        ItemRequest savedRequest = itemRequestRepository.save(itemRequest);
+        requestMatcher.put(savedRequest);
+        return ItemRequestMapper.toItemRequestDto(savedRequest);
+    }
+
+    public List<RequestMatchDto> getMatches(Long userId) {
+        checkUserExists(userId);
+        return requestMatcher.getInbox(userId);
+    }
+
+    private User getUserReference(Long userId) {
+        checkUserExists(userId);
+        return userRepository.getReferenceById(userId);
+    }
+
+    private void checkUserExists(Long userId) {
+        if (!userExistenceGuard.exists(userId)) {
+            throw new NotFoundException("This user was not found");
+        }
+    }
+
+    /**
+     * Метод для заполнения запросов предложенными вещами. Вещи всех запросов загружаются одним запросом к базе
+     * и раскладываются по запросам за один проход
+     *
+     * @param requests список запросов
+     * @return список запросов с вещами в исходном порядке
+     */
+    private List<ItemRequestDto> withItems(List<ItemRequest> requests) {
+        List<ItemRequestDto> requestsToReturn = ItemRequestMapper.toItemRequestDtoList(requests);
+        if (requestsToReturn.isEmpty()) {
+            return requestsToReturn;
+        }
+        Map<Long, List<ItemDto>> itemsByRequest = new HashMap<>();
+        requestsToReturn.forEach(r -> itemsByRequest.put(r.getId(), r.getItems()));
+        List<Long> requestIds = new ArrayList<>(itemsByRequest.keySet());
+        for (Item item : itemRepository.findAllByRequestIdIn(requestIds)) {
+            List<ItemDto> items = itemsByRequest.get(item.getRequest().getId());
+            if (items != null) {
+                items.add(ItemMapper.toItemDto(item));
+            }
+        }
+        return requestsToReturn;
     }
 }
@@ -1,13 +1,23 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserPageDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 
@@ -17,12 +27,55 @@ import java.util.List;
 @Validated
 @Slf4j
 public class UserController {
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Без параметров возвращает всех пользователей. С параметрами from/size - страницу по смещению,
+     * с параметром cursor (пустая строка - первая страница) - страницу по идентификатору, курсор следующей
+     * страницы передается в заголовке X-Next-Cursor
+     */
     @GetMapping
-    public List<UserDto> getAllUsers() {
+    public ResponseEntity<List<UserDto>> getAllUsers(@RequestParam(name = "from", required = false) Integer from,
+                                                     @RequestParam(name = "size", required = false) Integer size,
+                                                     @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Получен запрос на получение списка всех пользователей");
-        return userService.getAllUsers();
+        if (cursor != null) {
+            UserPageDto page = userService.getUsersPage(cursor, size != null ? size : DEFAULT_PAGE_SIZE);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR, page.getNextCursor());
+            }
+            return response.body(page.getUsers());
+        }
+        if (from != null || size != null) {
+            return ResponseEntity.ok(userService.getUsers(from != null ? from : 0, size != null ? size : DEFAULT_PAGE_SIZE));
+        }
+        return ResponseEntity.ok(userService.getAllUsers());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.info("Получен запрос на выгрузку всех пользователей");
+        ObjectWriter writer = objectMapper.writerFor(UserDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                userService.exportUsers(user -> {
+                    try {
+                        writer.writeValue(generator, user);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/{userId}")
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.user.repository;
+
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+public interface UserQueryRepository {
+    /**
+     * Метод для получения пользователей, упорядоченных по идентификатору, со смещением на произвольное число записей
+     *
+     * @param offset количество пропускаемых записей
+     * @param limit  максимальное количество записей
+     * @return список пользователей
+     */
+    List<User> findUsers(long offset, int limit);
+}
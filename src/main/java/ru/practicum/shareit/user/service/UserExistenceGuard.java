@@ -0,0 +1,201 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.internal.dto.CacheStatsDto;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Проверка существования пользователя без чтения строки пользователя на каждый запрос.
+ * Идентификаторы подтвержденных пользователей хранятся в ограниченном LRU-кэше. Дополнительно
+ * может быть включен фильтр Блума: если он отвечает, что пользователя нет, обращение к базе не выполняется.
+ */
+@Component
+@Slf4j
+public class UserExistenceGuard {
+    private final UserRepository userRepository;
+    private final int maxSize;
+    private final Map<Long, Boolean> knownIds;
+    private final BloomFilter bloomFilter;
+
+    private long version;
+    private long hits;
+    private long misses;
+    private long negatives;
+    private long evictions;
+    private long invalidations;
+
+    public UserExistenceGuard(UserRepository userRepository,
+                              @Value("${shareit.users.known-ids.max-size:100000}") int maxSize,
+                              @Value("${shareit.users.bloom.enabled:false}") boolean bloomEnabled,
+                              @Value("${shareit.users.bloom.expected-users:1000000}") int expectedUsers,
+                              @Value("${shareit.users.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        this.bloomFilter = bloomEnabled ? new BloomFilter(expectedUsers, falsePositiveRate) : null;
+        this.knownIds = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                if (size() > UserExistenceGuard.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        if (bloomFilter == null) {
+            return;
+        }
+        List<Long> ids = userRepository.findAllIds();
+        synchronized (this) {
+            ids.forEach(bloomFilter::put);
+        }
+        log.info("Фильтр Блума пользователей построен, загружено {} идентификаторов", ids.size());
+    }
+
+    /**
+     * Метод для проверки существования пользователя
+     *
+     * @param userId идентификатор пользователя
+     * @return true, если пользователь существует
+     */
+    public boolean exists(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        long readVersion;
+        synchronized (this) {
+            if (knownIds.get(userId) != null) {
+                hits++;
+                return true;
+            }
+            if (bloomFilter != null && !bloomFilter.mightContain(userId)) {
+                negatives++;
+                return false;
+            }
+            misses++;
+            readVersion = version;
+        }
+        boolean exists = userRepository.existsById(userId);
+        if (exists) {
+            synchronized (this) {
+                if (readVersion == version && maxSize > 0) {
+                    knownIds.put(userId, Boolean.TRUE);
+                }
+            }
+        }
+        return exists;
+    }
+
+    /**
+     * Метод для регистрации нового пользователя. Внутри транзакции пользователь регистрируется после ее фиксации
+     *
+     * @param userId идентификатор пользователя
+     */
+    public void register(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(userId);
+                }
+            });
+        } else {
+            add(userId);
+        }
+    }
+
+    public synchronized void forget(Long userId) {
+        version++;
+        invalidations++;
+        knownIds.remove(userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.isRemoved()) {
+            forget(event.getUserId());
+        }
+    }
+
+    public synchronized CacheStatsDto getStats() {
+        long requests = hits + misses + negatives;
+        return CacheStatsDto.builder()
+                .name("user-ids")
+                .size(knownIds.size())
+                .maxSize(maxSize)
+                .hits(hits)
+                .misses(misses)
+                .evictions(evictions)
+                .expirations(0L)
+                .invalidations(invalidations)
+                .hitRatio(requests == 0 ? 0.0 : (double) (hits + negatives) / requests)
+                .build();
+    }
+
+    private synchronized void add(Long userId) {
+        if (bloomFilter != null) {
+            bloomFilter.put(userId);
+        }
+        if (maxSize > 0) {
+            knownIds.put(userId, Boolean.TRUE);
+        }
+    }
+
+    private static final class BloomFilter {
+        private final long[] bits;
+        private final int bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedItems, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-expectedItems * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = (int) Math.max(64, Math.min(optimalBits, Integer.MAX_VALUE - 63));
+            this.bits = new long[(bitCount + 63) / 64];
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedItems * Math.log(2)));
+        }
+
+        void put(long value) {
+            long hash = mix(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+
+        boolean mightContain(long value) {
+            long hash = mix(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long mix(long value) {
+            long z = value + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -1,25 +1,75 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.exceptions.InvalidArgumentsException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.event.UserChangedEvent;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserPageDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.transaction.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userStorage;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserExistenceGuard userExistenceGuard;
 
     public List<UserDto> getAllUsers() {
         return UserMapper.toUserDtoList(userStorage.findAll());
     }
 
+    public List<UserDto> getUsers(Integer from, Integer size) {
+        if (from < 0 || size <= 0) {
+            throw new InvalidArgumentsException("'from' and 'size' should be positive");
+        }
+        return UserMapper.toUserDtoList(userStorage.findUsers(from, size));
+    }
+
+    /**
+     * Метод для получения страницы пользователей, упорядоченных по идентификатору, начиная после курсора
+     *
+     * @param cursor курсор, полученный с предыдущей страницей, или пустая строка для первой страницы
+     * @param size   размер страницы
+     * @return страница пользователей и курсор следующей страницы, если она может существовать
+     */
+    public UserPageDto getUsersPage(String cursor, Integer size) {
+        if (size <= 0) {
+            throw new InvalidArgumentsException("'size' should be positive");
+        }
+        long afterId = cursor == null || cursor.isEmpty() ? 0 : decodeCursor(cursor);
+        List<User> users = userStorage.findAllByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size));
+        return UserPageDto.builder()
+                .users(UserMapper.toUserDtoList(users))
+                .nextCursor(users.size() < size ? null : encodeCursor(users.get(users.size() - 1).getId()))
+                .build();
+    }
+
+    /**
+     * Метод для выгрузки всех пользователей. Пользователи читаются из базы порциями и передаются
+     * получателю по одному, не накапливаясь в памяти
+     *
+     * @param consumer получатель пользователей
+     */
+    @Transactional
+    public void exportUsers(Consumer<UserDto> consumer) {
+        try (Stream<UserDto> users = userStorage.streamAll()) {
+            users.forEach(consumer);
+        }
+    }
+
     public UserDto getUser(Long userId) {
         User user = userStorage.findById(userId).orElseThrow(() -> new NotFoundException("User was not found"));
         return UserMapper.toUserDto(user);
@@ -27,7 +77,9 @@ public class UserService {
 
     @Transactional
     public UserDto addUser(UserDto user) {
-        return UserMapper.toUserDto(userStorage.save(UserMapper.toUser(user)));
+        User savedUser = userStorage.save(UserMapper.toUser(user));
+        userExistenceGuard.register(savedUser.getId());
+        return UserMapper.toUserDto(savedUser);
     }
 
     @Transactional
@@ -39,7 +91,9 @@ public class UserService {
                 .email(user.getEmail() != null ? user.getEmail() : savedUser.getEmail())
                 .build();
 
-        return UserMapper.toUserDto(userStorage.save(updateUser));
+        UserDto updatedUser = UserMapper.toUserDto(userStorage.save(updateUser));
+        eventPublisher.publishEvent(new UserChangedEvent(userId, false));
+        return updatedUser;
     }
 
     @Transactional
@@ -48,6 +102,19 @@ public class UserService {
             throw new NotFoundException("User was not found");
         }
         userStorage.deleteById(userId);
+        eventPublisher.publishEvent(new UserChangedEvent(userId, true));
         return !userStorage.existsById(userId);
     }
+
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidArgumentsException("Invalid cursor");
+        }
+    }
 }
@@ -0,0 +1,4 @@
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITHOUT TIME ZONE;
+UPDATE bookings SET updated_at = LOCALTIMESTAMP WHERE updated_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_updated ON bookings (booker_id, updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_updated ON bookings (item_id, updated_at, id);
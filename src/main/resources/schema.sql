@@ -3,9 +3,16 @@ DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
 
+-- шаг последовательностей совпадает с allocationSize сущностей (оптимизатор pooled-lo)
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users
 (
-    id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
+    id    BIGINT DEFAULT nextval('users_seq') PRIMARY KEY     NOT NULL,
     name  VARCHAR(255)                                        NOT NULL,
     email VARCHAR(255)                                        NOT NULL,
     CONSTRAINT uniq_email UNIQUE (email)
@@ -13,7 +20,7 @@ CREATE TABLE IF NOT EXISTS users
 
 CREATE TABLE IF NOT EXISTS items
 (
-    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
+    id          BIGINT DEFAULT nextval('items_seq') PRIMARY KEY     NOT NULL,
     owner_id    BIGINT REFERENCES users (id) ON DELETE CASCADE      NOT NULL,
     name        VARCHAR(255)                                        NOT NULL,
     description VARCHAR(255)                                        NOT NULL,
@@ -23,7 +30,7 @@ CREATE TABLE IF NOT EXISTS items
 
 CREATE TABLE IF NOT EXISTS bookings
 (
-    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
+    id         BIGINT DEFAULT nextval('bookings_seq') PRIMARY KEY  NOT NULL,
     start_date TIMESTAMP WITHOUT TIME ZONE                         NOT NULL,
     end_date   TIMESTAMP WITHOUT TIME ZONE                         NOT NULL,
     item_id    BIGINT REFERENCES items (id) ON DELETE CASCADE      NOT NULL,
@@ -33,7 +40,7 @@ CREATE TABLE IF NOT EXISTS bookings
 
 CREATE TABLE IF NOT EXISTS comments
 (
-    id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
+    id        BIGINT DEFAULT nextval('comments_seq') PRIMARY KEY  NOT NULL,
     text      VARCHAR(255)                                        NOT NULL,
     item_id   BIGINT REFERENCES items (id) ON DELETE CASCADE      NOT NULL,
     author_id BIGINT REFERENCES users (id) ON DELETE CASCADE      NOT NULL,
@@ -42,7 +49,7 @@ CREATE TABLE IF NOT EXISTS comments
 
 CREATE TABLE IF NOT EXISTS requests
 (
-    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
+    id           BIGINT DEFAULT nextval('requests_seq') PRIMARY KEY  NOT NULL,
     description  VARCHAR(512)                                        NOT NULL,
     requestor_id BIGINT REFERENCES users (id) ON DELETE CASCADE,
     create_date  TIMESTAMP WITHOUT TIME ZONE
@@ -0,0 +1,42 @@
+package ru.practicum.shareit;
+
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class IdGenerationBatchTest {
+    private static final int USERS = 120;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldAllocateIdsInBlocksAndBatchInserts() {
+        Statistics statistics = entityManager.getEntityManager().unwrap(Session.class).getSessionFactory().getStatistics();
+        statistics.clear();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(entityManager.persist(User.builder().name("user" + i).email("batch" + i + "@email.ru").build()));
+        }
+        long sequenceCalls = statistics.getPrepareStatementCount();
+        entityManager.flush();
+
+        assertEquals(3, sequenceCalls);
+        // без пакетной вставки оператор подготавливается на каждую строку
+        assertEquals(1, statistics.getPrepareStatementCount() - sequenceCalls);
+        assertEquals(USERS, statistics.getEntityInsertCount());
+        for (int i = 1; i < USERS; i++) {
+            assertEquals(users.get(i - 1).getId() + 1, users.get(i).getId());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.internal.SqlStatementCounter;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+class ListQueryCountTest {
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    private int sequence;
+
+    @Test
+    void shouldKeepQueryCountIndependentOfPageSize() {
+        Fixture small = seed(2);
+        Fixture large = seed(10);
+
+        assertEquals(count(() -> bookingService.getAllBookingsForBookerOrItemOwner(small.booker, "ALL", 0, 2, true)),
+                count(() -> bookingService.getAllBookingsForBookerOrItemOwner(large.booker, "ALL", 0, 10, true)));
+        assertEquals(count(() -> bookingService.getAllBookingsForBookerOrItemOwner(small.owner, "ALL", 0, 2, false)),
+                count(() -> bookingService.getAllBookingsForBookerOrItemOwner(large.owner, "ALL", 0, 10, false)));
+        assertEquals(count(() -> itemService.getAllItems(small.owner)),
+                count(() -> itemService.getAllItems(large.owner)));
+        assertEquals(count(() -> itemRequestService.findAllRequests(small.owner, 0, 2)),
+                count(() -> itemRequestService.findAllRequests(large.owner, 0, 10)));
+        assertEquals(count(() -> itemRequestService.getRequestsForCurrentUser(small.requestor)),
+                count(() -> itemRequestService.getRequestsForCurrentUser(large.requestor)));
+    }
+
+    private long count(Supplier<Object> call) {
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter.reset();
+        try {
+            objectMapper.writeValueAsString(call.get());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return SqlStatementCounter.count();
+    }
+
+    private Fixture seed(int size) {
+        User owner = user();
+        User booker = user();
+        User requestor = user();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            ItemRequest request = ItemRequest.builder().description("request").requestor(requestor).createDate(now).build();
+            entityManager.persist(request);
+            Item item = Item.builder().name("item").description("description").available(true)
+                    .owner(owner).request(request).build();
+            entityManager.persist(item);
+            entityManager.persist(Booking.builder().item(item).booker(booker).startDate(now.minusDays(2))
+                    .endDate(now.minusDays(1)).status(BookingStatus.APPROVED).build());
+            entityManager.persist(Booking.builder().item(item).booker(booker).startDate(now.plusDays(1))
+                    .endDate(now.plusDays(2)).status(BookingStatus.WAITING).build());
+            entityManager.persist(Comment.builder().text("text").itemId(item.getId()).author(user()).created(now).build());
+        }
+        return new Fixture(owner.getId(), booker.getId(), requestor.getId());
+    }
+
+    private User user() {
+        sequence++;
+        User user = User.builder().name("user" + sequence).email("user" + sequence + "@email.ru").build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    private static class Fixture {
+        private final Long owner;
+        private final Long booker;
+        private final Long requestor;
+
+        Fixture(Long owner, Long booker, Long requestor) {
+            this.owner = owner;
+            this.booker = booker;
+            this.requestor = requestor;
+        }
+    }
+}
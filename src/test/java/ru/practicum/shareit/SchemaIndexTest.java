@@ -0,0 +1,139 @@
+package ru.practicum.shareit;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingFilter;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.internal.SqlStatementCounter;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class SchemaIndexTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private User user;
+
+    @BeforeEach
+    void beforeEach() {
+        user = entityManager.persistFlushFind(User.builder().name("user").email("user@email.ru").build());
+    }
+
+    @Test
+    void shouldApplyMigrationIndexes() {
+        Set<String> indexes = new HashSet<>();
+        session().doWork(connection -> {
+            try (ResultSet rs = connection.createStatement().executeQuery(
+                    "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME LIKE 'IDX_%'")) {
+                while (rs.next()) {
+                    indexes.add(rs.getString(1));
+                }
+            }
+        });
+        assertTrue(indexes.containsAll(Set.of("IDX_BOOKINGS_BOOKER_START", "IDX_BOOKINGS_ITEM_STATUS_START",
+                "IDX_ITEMS_OWNER", "IDX_ITEMS_REQUEST", "IDX_COMMENTS_ITEM_CREATED",
+                "IDX_REQUESTS_REQUESTOR_CREATE", "IDX_REQUESTS_CREATE_DATE", "IDX_BOOKINGS_STATUS_START",
+                "IDX_BOOKINGS_BOOKER_UPDATED", "IDX_BOOKINGS_ITEM_UPDATED")), indexes.toString());
+    }
+
+    @Test
+    void shouldUseIndexesForItemQueries() {
+        assertIndexed("ITEMS", explain(() -> itemRepository.findAllByOwnerId(1L)));
+        assertUses("IDX_ITEMS_REQUEST", explain(() -> itemRepository.findAllByRequestIdIn(List.of(1L, 2L))));
+        assertIndexed("COMMENTS", explain(() -> commentRepository.getCommentsByItemId(1L)));
+        assertIndexed("COMMENTS", explain(() -> commentRepository.getCommentsByItemIdIn(List.of(1L, 2L))));
+    }
+
+    @Test
+    void shouldUseIndexesForRequestQueries() {
+        assertIndexed("REQUESTS", explain(() -> itemRequestRepository.getItemRequestsByRequestorOrderByCreateDateDesc(user)));
+        assertUses("IDX_REQUESTS_CREATE_DATE", explain(() -> itemRequestRepository.getItemRequestsByRequestorIsNot(user,
+                PageRequest.of(0, 10, Sort.by("createDate").descending()))));
+        assertUses("IDX_ITEMS_REQUEST", explain(() -> itemRequestRepository.findAllOpen()));
+    }
+
+    @Test
+    void shouldUseIndexesForBookingQueries() {
+        assertIndexed("BOOKINGS", explain(() -> bookingRepository.findAllByBookerIdAndEndDateIsBeforeOrderByStartDateDesc(1L, now)));
+        assertUses("IDX_BOOKINGS_ITEM_STATUS_START", explain(() -> bookingRepository.findLastBooking(1L, now, BookingStatus.APPROVED)));
+        assertUses("IDX_BOOKINGS_ITEM_STATUS_START", explain(() -> bookingRepository.findNextBooking(1L, now, BookingStatus.APPROVED)));
+        assertUses("IDX_BOOKINGS_ITEM_STATUS_START", explain(() -> bookingRepository.findLastBookings(List.of(1L), now, BookingStatus.APPROVED)));
+        assertUses("IDX_BOOKINGS_ITEM_STATUS_START", explain(() -> bookingRepository.findNextBookings(List.of(1L), now, BookingStatus.APPROVED)));
+        assertUses("IDX_BOOKINGS_STATUS_START", explain(() -> bookingRepository.findAllByStatusAndStartDateBefore(
+                BookingStatus.WAITING, now, PageRequest.of(0, 10))));
+        assertIndexed("BOOKINGS", explain(() -> bookingRepository.findBookerChanges(1L, now, 0L, now, PageRequest.of(0, 10))));
+        String changes = explain(() -> bookingRepository.findOwnerChanges(1L, now, 0L, now, PageRequest.of(0, 10)));
+        assertIndexed("BOOKINGS", changes);
+        assertIndexed("ITEMS", changes);
+        for (boolean isBooker : new boolean[]{true, false}) {
+            BookingFilter filter = BookingFilter.builder().userId(1L).booker(isBooker).state(BookingState.ALL).now(now).build();
+            String plan = explain(() -> bookingRepository.findBookings(filter, 0, 10));
+            assertIndexed("BOOKINGS", plan);
+            assertIndexed("ITEMS", plan);
+            plan = explain(() -> bookingRepository.findShortBookings(filter, 0, 10));
+            assertIndexed("BOOKINGS", plan);
+            assertIndexed("ITEMS", plan);
+        }
+    }
+
+    private String explain(Runnable repositoryCall) {
+        SqlStatementCounter.reset();
+        repositoryCall.run();
+        String sql = SqlStatementCounter.lastStatement();
+        StringBuilder plan = new StringBuilder();
+        session().doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    plan.append(rs.getString(1));
+                }
+            }
+        });
+        return plan.toString();
+    }
+
+    private Session session() {
+        return entityManager.getEntityManager().unwrap(Session.class);
+    }
+
+    private static void assertIndexed(String table, String plan) {
+        assertFalse(plan.contains("PUBLIC." + table + ".tableScan"), plan);
+    }
+
+    private static void assertUses(String index, String plan) {
+        assertTrue(plan.contains("PUBLIC." + index), plan);
+    }
+}
@@ -9,7 +9,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingEventStream;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exceptions.InvalidArgumentsException;
 import ru.practicum.shareit.item.model.Item;
@@ -19,10 +26,14 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
+import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -35,22 +46,24 @@ class BookingControllerTest {
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     @MockBean
     private BookingService bookingService;
+    @MockBean
+    private BookingEventStream bookingEventStream;
     private final Item item = Item.builder()
             .name("name")
             .description("description")
             .available(true)
             .build();
     private final BookingDto inputBookingDto = BookingDto.builder()
-            .start(LocalDateTime.parse("2023-06-12 00:00", formatter))
-            .end(LocalDateTime.parse("2023-07-12 00:00", formatter))
+            .start(LocalDateTime.parse("2099-06-12 00:00", formatter))
+            .end(LocalDateTime.parse("2099-07-12 00:00", formatter))
             .id(1L).build();
     private final BookingDto bookingDtoWithStartBeforeCurrent = BookingDto.builder()
             .start(LocalDateTime.parse("2022-06-12 00:00", formatter))
             .end(LocalDateTime.parse("2022-06-15 00:00", formatter))
             .id(1L).build();
     private final BookingDto outputBookingDto = BookingDto.builder()
-            .start(LocalDateTime.parse("2023-06-12 00:00", formatter))
-            .end(LocalDateTime.parse("2023-07-12 00:00", formatter))
+            .start(LocalDateTime.parse("2099-06-12 00:00", formatter))
+            .end(LocalDateTime.parse("2099-07-12 00:00", formatter))
             .item(item)
             .build();
 
@@ -119,6 +132,27 @@ class BookingControllerTest {
                 .andExpect(content().json(mapper.writeValueAsString(outputBookingDto)));
     }
 
+    @Test
+    void shouldDecideBookingRequests() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true), new BookingDecisionDto(2L, false));
+        Mockito
+                .when(bookingService.decideBookingRequests(1L, decisions))
+                .thenReturn(List.of(
+                        BookingDecisionResultDto.builder().bookingId(1L).status(BookingStatus.APPROVED).build(),
+                        BookingDecisionResultDto.builder().bookingId(2L).error("Booking was not found").build()));
+
+        mvc.perform(patch("/bookings")
+                        .header(OWNER_ID, 1L)
+                        .content(mapper.writeValueAsString(decisions))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId", is(1)))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].error", is("Booking was not found")));
+    }
+
     @Test
     public void shouldReturnBadRequestOnBookingStatusChanged() throws Exception {
         Mockito
@@ -165,4 +199,67 @@ class BookingControllerTest {
                 .andExpect(content().json(mapper.writeValueAsString(List.of(outputBookingDto))));
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldReturnNextCursorHeaderOnKeysetPage() throws Exception {
+        Mockito
+                .when(bookingService.getBookingsPage(any(), any(), eq(""), anyInt(), anyBoolean()))
+                .thenReturn(BookingPageDto.builder().bookings(List.of(outputBookingDto)).nextCursor("next").build());
+
+        mvc.perform(get("/bookings" + "/owner?state=ALL&size=1&cursor=")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .header(OWNER_ID, 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(content().json(mapper.writeValueAsString(List.of(outputBookingDto))));
+    }
+
+    @Test
+    void shouldReturnBookingChangesWithCursor() throws Exception {
+        Mockito
+                .when(bookingService.getBookingChanges(1L, "cursor", 50))
+                .thenReturn(BookingPageDto.builder().bookings(List.of(outputBookingDto)).nextCursor("next").build());
+
+        mvc.perform(get("/bookings" + "/changes?since=cursor&size=50")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .header(OWNER_ID, 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(content().json(mapper.writeValueAsString(List.of(outputBookingDto))));
+    }
+
+    @Test
+    void shouldOpenBookingEventStream() throws Exception {
+        Mockito.when(bookingEventStream.subscribe(1L)).thenReturn(new SseEmitter());
+
+        mvc.perform(get("/bookings" + "/stream")
+                        .header(OWNER_ID, 1L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        Mockito.verify(bookingEventStream).subscribe(1L);
+    }
+
+    @Test
+    void shouldReturnCompactBookingsForItemOwner() throws Exception {
+        BookingShortDto shortBooking = BookingShortDto.builder()
+                .id(1L)
+                .start(inputBookingDto.getStart())
+                .end(inputBookingDto.getEnd())
+                .itemId(2L)
+                .itemName("name")
+                .bookerId(3L)
+                .build();
+        Mockito
+                .when(bookingService.getShortBookingsForBookerOrItemOwner(any(), any(), anyInt(), anyInt(), eq(false)))
+                .thenReturn(List.of(shortBooking));
+
+        mvc.perform(get("/bookings" + "/owner?state=ALL&view=compact")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .header(OWNER_ID, 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(List.of(shortBooking)), true));
+        Mockito.verify(bookingService, Mockito.never()).getAllBookingsForBookerOrItemOwner(any(), any(), anyInt(), anyInt(), anyBoolean());
+    }
+}
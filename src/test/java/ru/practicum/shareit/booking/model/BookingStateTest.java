@@ -22,7 +22,8 @@ class BookingStateTest {
             "PAST",
             "FUTURE",
             "WAITING",
-            "REJECTED"
+            "REJECTED",
+            "EXPIRED"
     })
     void shouldReturnCurrentState(String state) {
         assertTrue(Arrays.stream(BookingState.values()).anyMatch(s -> s.equals(BookingState.valueOf(state))));
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class BookingQueryRepositoryImplTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private User owner;
+    private User booker;
+    private Booking past;
+    private Booking current;
+    private Booking future;
+    private Booking rejected;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = entityManager.persist(User.builder().name("owner").email("owner@email.ru").build());
+        booker = entityManager.persist(User.builder().name("booker").email("booker@email.ru").build());
+        Item item = entityManager.persist(Item.builder().name("item").description("description").available(true)
+                .owner(owner).build());
+        past = entityManager.persist(booking(item, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED));
+        current = entityManager.persist(booking(item, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED));
+        future = entityManager.persist(booking(item, now.plusDays(2), now.plusDays(3), BookingStatus.WAITING));
+        rejected = entityManager.persist(booking(item, now.plusDays(4), now.plusDays(5), BookingStatus.REJECTED));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldFilterBookingsByRoleAndState() {
+        assertEquals(List.of(rejected.getId(), future.getId(), current.getId(), past.getId()), ids(BookingState.ALL, true));
+        assertEquals(List.of(current.getId()), ids(BookingState.CURRENT, false));
+        assertEquals(List.of(past.getId()), ids(BookingState.PAST, true));
+        assertEquals(List.of(rejected.getId(), future.getId()), ids(BookingState.FUTURE, false));
+        assertEquals(List.of(future.getId()), ids(BookingState.WAITING, true));
+        assertEquals(List.of(rejected.getId()), ids(BookingState.REJECTED, false));
+        assertTrue(bookingRepository.findBookings(filter(BookingState.ALL, true, owner.getId()), 0, 10).isEmpty());
+    }
+
+    @Test
+    void shouldApplyOffsetLimitAndOptionalFilters() {
+        List<Booking> page = bookingRepository.findBookings(filter(BookingState.ALL, true, booker.getId()), 1, 2);
+        assertEquals(List.of(future.getId(), current.getId()), page.stream().map(Booking::getId).collect(Collectors.toList()));
+        assertEquals("owner", page.get(0).getItem().getOwner().getName());
+
+        BookingFilter filter = filter(BookingState.ALL, false, owner.getId());
+        filter.setRangeStart(now);
+        filter.setRangeEnd(now.plusDays(2).plusHours(1));
+        assertEquals(List.of(future.getId(), current.getId()), bookingRepository.findBookings(filter, 0, 10).stream()
+                .map(Booking::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldSeekPastCursorWithIdTiebreak() {
+        Item item = entityManager.find(Item.class, entityManager.find(Booking.class, past.getId()).getItem().getId());
+        Booking twin = entityManager.persist(booking(item, current.getStartDate(), now.plusDays(1), BookingStatus.APPROVED));
+        entityManager.flush();
+        entityManager.clear();
+
+        BookingFilter filter = filter(BookingState.ALL, true, booker.getId());
+        List<Booking> first = bookingRepository.findBookings(filter, 0, 3);
+        assertEquals(List.of(rejected.getId(), future.getId(), twin.getId()),
+                first.stream().map(Booking::getId).collect(Collectors.toList()));
+
+        Booking last = first.get(first.size() - 1);
+        filter.setAfter(new BookingCursor(last.getStartDate(), last.getId()));
+        assertEquals(List.of(current.getId(), past.getId()), bookingRepository.findBookings(filter, 0, 3).stream()
+                .map(Booking::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldProjectShortBookingsInSameOrder() {
+        List<BookingShortDto> bookings = bookingRepository.findShortBookings(filter(BookingState.FUTURE, false, owner.getId()), 0, 10);
+        assertEquals(List.of(rejected.getId(), future.getId()),
+                bookings.stream().map(BookingShortDto::getId).collect(Collectors.toList()));
+        BookingShortDto first = bookings.get(0);
+        assertEquals("item", first.getItemName());
+        assertEquals(booker.getId(), first.getBookerId());
+        assertEquals(BookingStatus.REJECTED, first.getStatus());
+        assertEquals(List.of(past.getId()), bookingRepository.findShortBookings(filter(BookingState.PAST, true, booker.getId()), 0, 10)
+                .stream().map(BookingShortDto::getId).collect(Collectors.toList()));
+    }
+
+    private List<Long> ids(BookingState state, boolean isBooker) {
+        Long userId = isBooker ? booker.getId() : owner.getId();
+        return bookingRepository.findBookings(filter(state, isBooker, userId), 0, 10).stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+    }
+
+    private BookingFilter filter(BookingState state, boolean isBooker, Long userId) {
+        return BookingFilter.builder()
+                .userId(userId)
+                .booker(isBooker)
+                .state(state)
+                .now(now)
+                .build();
+    }
+
+    private Booking booking(Item item, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return Booking.builder()
+                .item(item)
+                .booker(booker)
+                .startDate(start)
+                .endDate(end)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class BookingRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private Booking booking;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = entityManager.persist(User.builder().name("owner").email("owner@email.ru").build());
+        User booker = entityManager.persist(User.builder().name("booker").email("booker@email.ru").build());
+        Item item = entityManager.persist(Item.builder().name("item").description("description").available(true)
+                .owner(owner).build());
+        LocalDateTime now = LocalDateTime.now();
+        booking = entityManager.persist(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .startDate(now.plusDays(1))
+                .endDate(now.plusDays(2))
+                .status(BookingStatus.WAITING)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldChangeStatusOnlyFromExpectedStatus() {
+        assertEquals(1, bookingRepository.updateStatus(booking.getId(), BookingStatus.WAITING, BookingStatus.REJECTED, LocalDateTime.now()));
+        assertEquals(0, bookingRepository.updateStatus(booking.getId(), BookingStatus.WAITING, BookingStatus.APPROVED, LocalDateTime.now()));
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldNotOverwriteStatusFromStaleEntity() {
+        Booking loaded = bookingRepository.findById(booking.getId()).orElseThrow();
+        loaded.setEndDate(loaded.getEndDate().plusHours(1));
+
+        assertEquals(1, bookingRepository.updateStatus(booking.getId(), BookingStatus.WAITING, BookingStatus.APPROVED, LocalDateTime.now()));
+        entityManager.flush();
+
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldLockOnlyOwnerBookingsAndUpdateThemInBatch() {
+        List<Booking> bookings = bookingRepository.findAllByIdInForOwner(List.of(booking.getId(), -1L), owner.getId());
+        assertEquals(1, bookings.size());
+        assertTrue(bookingRepository.findAllByIdInForOwner(List.of(booking.getId()), owner.getId() + 100).isEmpty());
+
+        assertEquals(1, bookingRepository.updateStatuses(List.of(booking.getId()), BookingStatus.WAITING, BookingStatus.APPROVED, LocalDateTime.now()));
+        assertEquals(0, bookingRepository.updateStatuses(List.of(booking.getId()), BookingStatus.WAITING, BookingStatus.REJECTED, LocalDateTime.now()));
+    }
+
+    @Test
+    void shouldFindChangesAfterCursorForBookerAndOwner() {
+        Booking stored = bookingRepository.findById(booking.getId()).orElseThrow();
+        LocalDateTime created = stored.getUpdatedAt();
+        Long bookerId = stored.getBooker().getId();
+        LocalDateTime until = LocalDateTime.now().plusMinutes(1);
+        PageRequest page = PageRequest.of(0, 10);
+
+        assertEquals(1, bookingRepository.findBookerChanges(bookerId, created.minusSeconds(1), 0L, until, page).size());
+        assertEquals(1, bookingRepository.findOwnerChanges(owner.getId(), created.minusSeconds(1), 0L, until, page).size());
+        assertTrue(bookingRepository.findOwnerChanges(bookerId, created.minusSeconds(1), 0L, until, page).isEmpty());
+        assertTrue(bookingRepository.findBookerChanges(bookerId, created, booking.getId(), until, page).isEmpty());
+        assertTrue(bookingRepository.findBookerChanges(bookerId, created.minusSeconds(1), 0L, created.minusSeconds(1), page).isEmpty());
+
+        LocalDateTime approved = created.plusSeconds(1);
+        bookingRepository.updateStatus(booking.getId(), BookingStatus.WAITING, BookingStatus.APPROVED, approved);
+
+        List<Booking> changes = bookingRepository.findBookerChanges(bookerId, created, booking.getId(), until, page);
+        assertEquals(1, changes.size());
+        assertEquals(approved, changes.get(0).getUpdatedAt());
+    }
+
+    @Test
+    void shouldFindOverdueBookingsInStartOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking overdue = entityManager.persist(Booking.builder()
+                .item(entityManager.find(Booking.class, booking.getId()).getItem())
+                .booker(owner)
+                .startDate(now.minusDays(2))
+                .endDate(now.plusDays(1))
+                .status(BookingStatus.WAITING)
+                .build());
+        entityManager.flush();
+
+        assertEquals(List.of(overdue.getId()), bookingRepository.findAllByStatusAndStartDateBefore(BookingStatus.WAITING,
+                now, PageRequest.of(0, 10)).stream().map(Booking::getId).collect(Collectors.toList()));
+        assertEquals(2, bookingRepository.findAllByStatusAndStartDateBefore(BookingStatus.WAITING,
+                now.plusDays(3), PageRequest.of(0, 10)).size());
+        assertEquals(1, bookingRepository.findAllByStatusAndStartDateBefore(BookingStatus.WAITING,
+                now.plusDays(3), PageRequest.of(0, 1)).size());
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSimplyDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.exceptions.InvalidArgumentsException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class BookingApprovalRaceTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void shouldLetOnlyOneConcurrentDecisionWin() throws Exception {
+        Long ownerId = userService.addUser(UserDto.builder().name("owner").email("race-owner@email.ru").build()).getId();
+        Long bookerId = userService.addUser(UserDto.builder().name("booker").email("race-booker@email.ru").build()).getId();
+        Long itemId = itemService.addItem(ownerId, ItemDto.builder().name("item").description("description")
+                .available(true).build()).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long bookingId = bookingService.addBooking(bookerId, BookingSimplyDto.builder()
+                .itemId(itemId).start(start).end(start.plusDays(1)).build()).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<BookingDto>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean approve = i % 2 == 0;
+            results.add(executor.submit(() -> {
+                ready.await();
+                return approve ? bookingService.approveBookingRequest(ownerId, bookingId)
+                        : bookingService.rejectBookingRequest(ownerId, bookingId);
+            }));
+        }
+        ready.countDown();
+
+        List<BookingStatus> decisions = new ArrayList<>();
+        for (Future<BookingDto> result : results) {
+            try {
+                decisions.add(result.get(10, TimeUnit.SECONDS).getStatus());
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof ConflictException || e.getCause() instanceof InvalidArgumentsException)) {
+                    throw e;
+                }
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, decisions.size());
+        assertEquals(decisions.get(0), bookingService.getBooking(ownerId, bookingId).getStatus());
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.service.UserExistenceGuard;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ExtendWith(MockitoExtension.class)
+class BookingEventStreamTest {
+    @Mock
+    private UserExistenceGuard userExistenceGuard;
+
+    private final List<Runnable> pendingSends = new ArrayList<>();
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor();
+    private BookingEventStream stream;
+
+    @BeforeEach
+    void beforeEach() {
+        Mockito.when(userExistenceGuard.exists(Mockito.anyLong())).thenAnswer(invocation -> invocation.<Long>getArgument(0) < 10);
+        stream = new BookingEventStream(userExistenceGuard, 1, 2, Duration.ofMinutes(1), Duration.ofSeconds(5),
+                pendingSends::add, watchdog);
+    }
+
+    @AfterEach
+    void afterEach() {
+        watchdog.shutdownNow();
+    }
+
+    @Test
+    void shouldDeliverEventsToBookerAndOwner() {
+        stream.subscribe(1L);
+        stream.subscribe(2L);
+        stream.subscribe(3L);
+
+        stream.onBookingChanged(event(1L, 2L));
+        assertEquals(2, pendingSends.size());
+        pendingSends.forEach(Runnable::run);
+        pendingSends.clear();
+
+        stream.onBookingChanged(event(1L, 2L));
+        assertEquals(2, pendingSends.size());
+        assertEquals(3, stream.getSubscriberCount());
+        assertEquals(0, stream.getDroppedCount());
+    }
+
+    @Test
+    void shouldDropSubscriberWhenBufferIsFull() {
+        stream.subscribe(1L);
+
+        stream.onBookingChanged(event(1L, 2L));
+        stream.onBookingChanged(event(1L, 2L));
+
+        assertEquals(1, pendingSends.size());
+        assertEquals(0, stream.getSubscriberCount());
+        assertEquals(1, stream.getDroppedCount());
+    }
+
+    @Test
+    void shouldLimitSubscribersPerUser() {
+        stream.subscribe(1L);
+        stream.subscribe(1L);
+
+        assertThrows(ConflictException.class, () -> stream.subscribe(1L));
+        assertThrows(NotFoundException.class, () -> stream.subscribe(99L));
+        assertEquals(2, stream.getSubscriberCount());
+    }
+
+    @Test
+    void shouldCloseSubscriberWhenSendTakesTooLong() throws Exception {
+        CountDownLatch sendFinished = new CountDownLatch(1);
+        stream = new BookingEventStream(userExistenceGuard, 1, 2, Duration.ofMinutes(1), Duration.ofMillis(50),
+                task -> new Thread(task).start(), watchdog) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                return new SseEmitter(timeoutMillis) {
+                    @Override
+                    public void send(SseEventBuilder builder) throws IOException {
+                        try {
+                            new CountDownLatch(1).await();
+                        } catch (InterruptedException e) {
+                            throw new IOException("Write was interrupted", e);
+                        } finally {
+                            sendFinished.countDown();
+                        }
+                    }
+                };
+            }
+        };
+        stream.subscribe(1L);
+
+        stream.onBookingChanged(event(1L, 2L));
+
+        assertTrue(sendFinished.await(5, TimeUnit.SECONDS));
+        assertEquals(0, stream.getSubscriberCount());
+        assertEquals(1, stream.getDroppedCount());
+    }
+
+    private BookingChangedEvent event(Long bookerId, Long ownerId) {
+        return new BookingChangedEvent(BookingEventDto.builder()
+                .id(5L)
+                .itemId(7L)
+                .bookerId(bookerId)
+                .status(BookingStatus.WAITING)
+                .updatedAt(LocalDateTime.now())
+                .build(), ownerId);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ExtendWith(MockitoExtension.class)
+class BookingExpirySweeperTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookingExpirySweeper sweeper;
+    private final Item item = Item.builder().id(7L).build();
+
+    @BeforeEach
+    void beforeEach() {
+        sweeper = new BookingExpirySweeper(bookingRepository, bookingIntervalIndex, new BookingChangeClock(), transactionManager, 2, 3);
+        Mockito.when(bookingRepository.updateStatuses(Mockito.anyCollection(), Mockito.eq(BookingStatus.WAITING),
+                        Mockito.eq(BookingStatus.EXPIRED), Mockito.any()))
+                .thenAnswer(invocation -> invocation.<Collection<?>>getArgument(0).size());
+    }
+
+    @Test
+    void shouldExpireInBatchesUntilBatchIsNotFull() {
+        Mockito.when(bookingRepository.findAllByStatusAndStartDateBefore(Mockito.eq(BookingStatus.WAITING),
+                        Mockito.any(LocalDateTime.class), Mockito.any(Pageable.class)))
+                .thenReturn(List.of(booking(1L), booking(2L)))
+                .thenReturn(List.of(booking(3L)));
+
+        assertEquals(3, sweeper.sweep());
+
+        Mockito.verify(bookingRepository).updateStatuses(Mockito.eq(List.of(1L, 2L)), Mockito.eq(BookingStatus.WAITING),
+                Mockito.eq(BookingStatus.EXPIRED), Mockito.any());
+        Mockito.verify(bookingRepository).updateStatuses(Mockito.eq(List.of(3L)), Mockito.eq(BookingStatus.WAITING),
+                Mockito.eq(BookingStatus.EXPIRED), Mockito.any());
+        Mockito.verify(bookingIntervalIndex).release(7L, 3L);
+        Mockito.verify(transactionManager, Mockito.times(2)).commit(Mockito.any());
+    }
+
+    @Test
+    void shouldStopAfterMaxBatchesPerRun() {
+        Mockito.when(bookingRepository.findAllByStatusAndStartDateBefore(Mockito.eq(BookingStatus.WAITING),
+                        Mockito.any(LocalDateTime.class), Mockito.any(Pageable.class)))
+                .thenReturn(List.of(booking(1L), booking(2L)));
+
+        assertEquals(6, sweeper.sweep());
+        Mockito.verify(bookingRepository, Mockito.times(3)).findAllByStatusAndStartDateBefore(Mockito.any(),
+                Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void shouldRollBackBatchChangedConcurrently() {
+        Mockito.when(bookingRepository.findAllByStatusAndStartDateBefore(Mockito.eq(BookingStatus.WAITING),
+                        Mockito.any(LocalDateTime.class), Mockito.any(Pageable.class)))
+                .thenReturn(List.of(booking(1L), booking(2L)));
+        Mockito.when(bookingRepository.updateStatuses(Mockito.anyCollection(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(1);
+
+        assertThrows(ConflictException.class, () -> sweeper.sweep());
+        Mockito.verify(transactionManager).rollback(Mockito.any());
+        Mockito.verify(bookingIntervalIndex, Mockito.never()).release(Mockito.any(), Mockito.any());
+    }
+
+    private Booking booking(Long id) {
+        return Booking.builder().id(id).item(item).status(BookingStatus.WAITING).build();
+    }
+}
@@ -0,0 +1,182 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.ActiveBookingDto;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @InjectMocks
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private LocalDateTime start;
+
+    @BeforeEach
+    void beforeEach() {
+        start = LocalDateTime.now().plusDays(1);
+        Mockito.when(bookingRepository.findAllActiveBookings(Mockito.anyList(), Mockito.any()))
+                .thenReturn(List.of(new ActiveBookingDto(1L, start, start.plusDays(2), 1L, 2L, 10L)));
+        bookingIntervalIndex.warmUp();
+    }
+
+    @Test
+    void shouldRejectOverlappingIntervals() {
+        assertThrows(ConflictException.class,
+                () -> bookingIntervalIndex.reserve(1L, 10L, null, 20L, start.minusDays(1), start.plusHours(1)));
+        assertThrows(ConflictException.class,
+                () -> bookingIntervalIndex.reserve(1L, 10L, null, 20L, start.plusHours(1), start.plusHours(2)));
+        assertThrows(ConflictException.class,
+                () -> bookingIntervalIndex.reserve(1L, 10L, null, 20L, start.plusDays(1), start.plusDays(3)));
+    }
+
+    @Test
+    void shouldReserveAdjacentIntervalsAndOtherItems() {
+        assertNotNull(bookingIntervalIndex.reserve(1L, 10L, null, 20L, start.minusHours(5), start));
+        assertNotNull(bookingIntervalIndex.reserve(1L, 10L, null, 20L, start.plusDays(2), start.plusDays(3)));
+        assertNotNull(bookingIntervalIndex.reserve(2L, 10L, null, 20L, start, start.plusDays(2)));
+    }
+
+    @Test
+    void shouldReleaseAndReserveAgain() {
+        assertNull(bookingIntervalIndex.reserve(1L, 10L, 1L, 2L, start, start.plusDays(2)));
+
+        bookingIntervalIndex.release(1L, 1L);
+        BookingIntervalIndex.Slot slot = bookingIntervalIndex.reserve(1L, 10L, null, 20L, start, start.plusDays(1));
+        bookingIntervalIndex.assign(1L, slot, 5L);
+        assertEquals(5L, slot.getBookingId());
+
+        bookingIntervalIndex.release(1L, 5L);
+        assertNotNull(bookingIntervalIndex.reserve(1L, 10L, 1L, 2L, start, start.plusDays(2)));
+    }
+
+    @Test
+    void shouldReturnMergedBusyIntervalsWithinWindow() {
+        bookingIntervalIndex.reserve(1L, 10L, 2L, 2L, start.plusDays(2), start.plusDays(3));
+        bookingIntervalIndex.reserve(1L, 10L, 3L, 2L, start.plusDays(5), start.plusDays(7));
+
+        List<IntervalDto> busy = bookingIntervalIndex.getBusyIntervals(1L, start.plusDays(1), start.plusDays(6));
+
+        assertEquals(List.of(new IntervalDto(start.plusDays(1), start.plusDays(3)),
+                new IntervalDto(start.plusDays(5), start.plusDays(6))), busy);
+        assertTrue(bookingIntervalIndex.getBusyIntervals(4L, start, start.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void shouldMergeOverlappingBookingsLoadedOnWarmUp() {
+        Mockito.when(bookingRepository.findAllActiveBookings(Mockito.anyList(), Mockito.any()))
+                .thenReturn(List.of(new ActiveBookingDto(1L, start.plusDays(1), start.plusDays(10), 1L, 2L, 10L),
+                        new ActiveBookingDto(2L, start.plusDays(2), start.plusDays(3), 1L, 2L, 10L),
+                        new ActiveBookingDto(3L, start.plusDays(20), start.plusDays(30), 1L, 2L, 10L),
+                        new ActiveBookingDto(4L, start.plusDays(20), start.plusDays(22), 1L, 2L, 10L)));
+        bookingIntervalIndex.warmUp();
+
+        assertThrows(ConflictException.class,
+                () -> bookingIntervalIndex.reserve(1L, 10L, null, 20L, start.plusDays(4), start.plusDays(5)));
+        assertEquals(List.of(new IntervalDto(start.plusDays(1), start.plusDays(10)),
+                        new IntervalDto(start.plusDays(20), start.plusDays(30))),
+                bookingIntervalIndex.getBusyIntervals(1L, start, start.plusDays(40)));
+
+        bookingIntervalIndex.release(1L, 1L);
+        assertNotNull(bookingIntervalIndex.reserve(1L, 10L, null, 20L, start.plusDays(4), start.plusDays(5)));
+        assertThrows(ConflictException.class,
+                () -> bookingIntervalIndex.reserve(1L, 10L, null, 20L, start.plusDays(2), start.plusDays(3)));
+
+        bookingIntervalIndex.release(1L, 3L);
+        assertThrows(ConflictException.class,
+                () -> bookingIntervalIndex.reserve(1L, 10L, null, 20L, start.plusDays(21), start.plusDays(23)));
+        assertNotNull(bookingIntervalIndex.reserve(1L, 10L, null, 20L, start.plusDays(22), start.plusDays(23)));
+    }
+
+    @Test
+    void shouldAllowOnlyOneOfConcurrentReservations() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingIntervalIndex.reserve(3L, 10L, null, 20L, start, start.plusDays(1));
+                    return true;
+                } catch (ConflictException e) {
+                    return false;
+                }
+            }));
+        }
+        ready.countDown();
+        int reserved = 0;
+        for (Future<Boolean> result : results) {
+            reserved += result.get() ? 1 : 0;
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, reserved);
+    }
+
+    @Test
+    void shouldReleaseBookingsOfRemovedBooker() {
+        bookingIntervalIndex.reserve(1L, 10L, 12L, 21L, start.plusDays(3), start.plusDays(4));
+
+        bookingIntervalIndex.onUserChanged(new UserChangedEvent(2L, true));
+
+        assertNotNull(bookingIntervalIndex.reserve(1L, 10L, null, 22L, start, start.plusDays(2)));
+        assertThrows(ConflictException.class,
+                () -> bookingIntervalIndex.reserve(1L, 10L, null, 22L, start.plusDays(3), start.plusDays(4)));
+    }
+
+    @Test
+    void shouldDropItemsOfRemovedOwner() {
+        bookingIntervalIndex.reserve(5L, 30L, 12L, 20L, start, start.plusDays(1));
+        bookingIntervalIndex.reserve(6L, 31L, 13L, 20L, start, start.plusDays(1));
+
+        bookingIntervalIndex.onUserChanged(new UserChangedEvent(30L, false));
+        assertEquals(1, bookingIntervalIndex.getBusyIntervals(5L, start, start.plusDays(1)).size());
+
+        bookingIntervalIndex.onUserChanged(new UserChangedEvent(30L, true));
+
+        assertTrue(bookingIntervalIndex.getBusyIntervals(5L, start, start.plusDays(1)).isEmpty());
+        assertEquals(1, bookingIntervalIndex.getBusyIntervals(6L, start, start.plusDays(1)).size());
+    }
+
+    @Test
+    void shouldDropItemTimelineOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingIntervalIndex.removeItem(1L);
+            assertEquals(1, bookingIntervalIndex.getBusyIntervals(1L, start, start.plusDays(1)).size());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(bookingIntervalIndex.getBusyIntervals(1L, start, start.plusDays(1)).isEmpty());
+    }
+}
@@ -5,22 +5,40 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.dto.BookingSimplyDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingFilter;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.InvalidArgumentsException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.exceptions.UnknownStateException;
 import ru.practicum.shareit.exceptions.UserValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
@@ -28,11 +46,15 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceGuard;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -48,6 +70,14 @@ class BookingServiceImplTest {
     UserRepository userRepository;
     @Mock
     ItemRepository itemRepository;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Mock
+    BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    UserExistenceGuard userExistenceGuard;
+    @Spy
+    BookingChangeClock bookingChangeClock = new BookingChangeClock();
 
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
@@ -57,6 +87,8 @@ class BookingServiceImplTest {
 
     @BeforeEach
     void setup() {
+        Mockito.when(userExistenceGuard.exists(Mockito.anyLong()))
+                .thenAnswer(invocation -> userRepository.findById(invocation.getArgument(0)).isPresent());
         itemDto = ItemDto.builder()
                 .id(1L)
                 .name("item")
@@ -72,8 +104,8 @@ class BookingServiceImplTest {
 
         bookingSimplyDto = BookingSimplyDto.builder()
                 .id(1L)
-                .start(LocalDateTime.parse("2023-06-12 00:00", formatter))
-                .end(LocalDateTime.parse("2023-07-12 00:00", formatter))
+                .start(LocalDateTime.parse("2099-06-12 00:00", formatter))
+                .end(LocalDateTime.parse("2099-07-12 00:00", formatter))
                 .itemId(1L)
                 .bookerId(1L)
                 .build();
@@ -87,15 +119,16 @@ class BookingServiceImplTest {
 
         Mockito.when(userRepository.findById(2L)).thenReturn(Optional.of(new User()));
         Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
-        Mockito.when(bookingRepository.save(Mockito.any(Booking.class))).thenReturn(new Booking());
+        Mockito.when(bookingRepository.save(Mockito.any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
         BookingDto bookingDto = bookingService.addBooking(2L, bookingSimplyDto);
 
         assertNotNull(bookingDto);
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(BookingChangedEvent.class));
 
         bookingSimplyDto.setEnd(LocalDateTime.now());
         assertThrows(InvalidArgumentsException.class, () -> bookingService.addBooking(2L, bookingSimplyDto));
 
-        bookingSimplyDto.setEnd(LocalDateTime.parse("2023-07-12 00:00", formatter));
+        bookingSimplyDto.setEnd(LocalDateTime.parse("2099-07-12 00:00", formatter));
         assertThrows(NotFoundException.class, () -> bookingService.addBooking(1L, bookingSimplyDto));
 
         user.setId(2L);
@@ -109,6 +142,22 @@ class BookingServiceImplTest {
         assertThrows(InvalidArgumentsException.class, () -> bookingService.addBooking(2L, bookingSimplyDto));
     }
 
+    @Test
+    void shouldRejectOverlappingBooking() {
+        User owner = UserMapper.toUser(userDto);
+        Item item = ItemMapper.toItem(itemDto);
+        item.setOwner(owner);
+
+        Mockito.when(userRepository.findById(2L)).thenReturn(Optional.of(new User()));
+        Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
+        Mockito.when(bookingIntervalIndex.reserve(Mockito.eq(1L), Mockito.any(), Mockito.isNull(),
+                Mockito.eq(2L), Mockito.any(), Mockito.any()))
+                .thenThrow(new ConflictException("Item is already booked for these dates"));
+
+        assertThrows(ConflictException.class, () -> bookingService.addBooking(2L, bookingSimplyDto));
+        Mockito.verify(bookingRepository, Mockito.never()).save(Mockito.any());
+    }
+
     @Test
     void shouldApproveAndRejectBookingOrThrowException() {
         User user = UserMapper.toUser(userDto);
@@ -118,7 +167,8 @@ class BookingServiceImplTest {
 
         Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
         Mockito.when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
-        Mockito.when(bookingRepository.save(Mockito.any(Booking.class))).thenReturn(new Booking());
+        Mockito.when(bookingRepository.updateStatus(Mockito.any(), Mockito.eq(BookingStatus.WAITING), Mockito.any(), Mockito.any()))
+                .thenReturn(1);
 
         assertThrows(NotFoundException.class, () -> bookingService.approveBookingRequest(2L, 1L));
         assertThrows(NotFoundException.class, () -> bookingService.rejectBookingRequest(2L, 1L));
@@ -126,10 +176,12 @@ class BookingServiceImplTest {
         BookingDto bookingDto = bookingService.rejectBookingRequest(1L, 1L);
         assertNotNull(bookingDto);
         assertEquals(bookingDto.getStatus(), BookingStatus.REJECTED);
+        Mockito.verify(bookingIntervalIndex).release(item.getId(), booking.getId());
 
         bookingDto = bookingService.approveBookingRequest(1L, 1L);
         assertNotNull(bookingDto);
         assertEquals(bookingDto.getStatus(), BookingStatus.APPROVED);
+        Mockito.verify(eventPublisher, Mockito.times(2)).publishEvent(Mockito.any(BookingChangedEvent.class));
 
 
         Mockito.when(userRepository.findById(2L)).thenReturn(Optional.of(new User()));
@@ -144,6 +196,96 @@ class BookingServiceImplTest {
         assertThrows(InvalidArgumentsException.class, () -> bookingService.approveBookingRequest(2L, 1L));
     }
 
+    @Test
+    void shouldThrowConflictWhenBookingIsNoLongerWaiting() {
+        User user = UserMapper.toUser(userDto);
+        Item item = ItemMapper.toItem(itemDto);
+        item.setOwner(user);
+        Booking booking = BookingMapper.toBooking(bookingSimplyDto, item, user);
+
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        Mockito.when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        Mockito.when(bookingRepository.updateStatus(Mockito.any(), Mockito.eq(BookingStatus.WAITING), Mockito.any(), Mockito.any()))
+                .thenReturn(0);
+
+        assertThrows(ConflictException.class, () -> bookingService.approveBookingRequest(1L, 1L));
+        assertThrows(ConflictException.class, () -> bookingService.rejectBookingRequest(1L, 1L));
+        Mockito.verify(bookingIntervalIndex, Mockito.never()).release(Mockito.any(), Mockito.any());
+        Mockito.verify(eventPublisher, Mockito.never()).publishEvent(Mockito.any(ItemChangedEvent.class));
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+    }
+
+    @Test
+    void shouldDecideBookingRequestsInBatches() {
+        User owner = UserMapper.toUser(userDto);
+        Item item = ItemMapper.toItem(itemDto);
+        item.setOwner(owner);
+        Booking waitingToApprove = booking(10L, item, BookingStatus.WAITING);
+        Booking waitingToReject = booking(11L, item, BookingStatus.WAITING);
+        Booking overlapping = booking(12L, item, BookingStatus.WAITING);
+        Booking approved = booking(13L, item, BookingStatus.APPROVED);
+
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        Mockito.when(bookingRepository.findAllByIdInForOwner(Mockito.anyCollection(), Mockito.eq(1L)))
+                .thenReturn(List.of(waitingToApprove, waitingToReject, overlapping, approved));
+        Mockito.when(bookingIntervalIndex.reserve(item.getId(), 1L, 12L, overlapping.getBooker().getId(),
+                overlapping.getStartDate(), overlapping.getEndDate()))
+                .thenThrow(new ConflictException("Item is already booked for these dates"));
+        Mockito.when(bookingRepository.updateStatuses(Mockito.anyCollection(), Mockito.eq(BookingStatus.WAITING), Mockito.any(),
+                Mockito.any()))
+                .thenAnswer(invocation -> invocation.<Collection<?>>getArgument(0).size());
+
+        List<BookingDecisionResultDto> results = bookingService.decideBookingRequests(1L, List.of(
+                new BookingDecisionDto(10L, true),
+                new BookingDecisionDto(11L, false),
+                new BookingDecisionDto(12L, true),
+                new BookingDecisionDto(13L, false),
+                new BookingDecisionDto(99L, true),
+                new BookingDecisionDto(10L, false)));
+
+        assertEquals(6, results.size());
+        assertEquals(BookingStatus.APPROVED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals(BookingStatus.REJECTED, results.get(1).getStatus());
+        assertEquals("Item is already booked for these dates", results.get(2).getError());
+        assertEquals("Booking is no longer waiting for approval", results.get(3).getError());
+        assertEquals("Booking was not found", results.get(4).getError());
+        assertEquals("Duplicate booking id", results.get(5).getError());
+        Mockito.verify(bookingRepository).findAllByIdInForOwner(Mockito.anyCollection(), Mockito.eq(1L));
+        Mockito.verify(bookingRepository).updateStatuses(Mockito.eq(List.of(10L)), Mockito.eq(BookingStatus.WAITING),
+                Mockito.eq(BookingStatus.APPROVED), Mockito.any());
+        Mockito.verify(bookingRepository).updateStatuses(Mockito.eq(List.of(11L)), Mockito.eq(BookingStatus.WAITING),
+                Mockito.eq(BookingStatus.REJECTED), Mockito.any());
+        Mockito.verify(bookingIntervalIndex).release(item.getId(), 11L);
+        Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(Mockito.any(ItemChangedEvent.class));
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(eventPublisher, Mockito.times(3)).publishEvent(events.capture());
+        List<BookingChangedEvent> bookingEvents = events.getAllValues().stream()
+                .filter(BookingChangedEvent.class::isInstance)
+                .map(BookingChangedEvent.class::cast)
+                .collect(Collectors.toList());
+        assertEquals(List.of(BookingStatus.APPROVED, BookingStatus.REJECTED), bookingEvents.stream()
+                .map(e -> e.getBooking().getStatus()).sorted().collect(Collectors.toList()));
+        assertTrue(bookingEvents.stream().allMatch(e -> e.getOwnerId() == 1L && e.getBooking().getUpdatedAt() != null));
+    }
+
+    @Test
+    void shouldRejectInvalidBookingDecisions() {
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+
+        assertThrows(InvalidArgumentsException.class, () -> bookingService.decideBookingRequests(1L, List.of()));
+        assertThrows(InvalidArgumentsException.class, () -> bookingService.decideBookingRequests(1L,
+                List.of(new BookingDecisionDto(1L, null))));
+        assertThrows(NotFoundException.class, () -> bookingService.decideBookingRequests(2L,
+                List.of(new BookingDecisionDto(1L, true))));
+
+        Mockito.when(bookingRepository.findAllByIdInForOwner(Mockito.anyCollection(), Mockito.eq(1L)))
+                .thenReturn(List.of(booking(1L, ItemMapper.toItem(itemDto), BookingStatus.WAITING)));
+        Mockito.when(bookingRepository.updateStatuses(Mockito.anyCollection(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(0);
+        assertThrows(ConflictException.class, () -> bookingService.decideBookingRequests(1L,
+                List.of(new BookingDecisionDto(1L, true))));
+    }
+
     @ParameterizedTest
     @CsvSource(value = {
             "ALL, 1, 2, true",
@@ -180,24 +322,7 @@ class BookingServiceImplTest {
         Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(new User()));
         Mockito.when(bookingRepository.save(Mockito.any(Booking.class))).thenReturn(booking);
 
-        Mockito.when(bookingRepository.findAllByBookerId(Mockito.anyLong(), Mockito.any())).thenReturn(List.of(booking));
-        Mockito.when(bookingRepository.findAllByBookerIdAndStartDateIsBeforeAndEndDateIsAfter(Mockito.anyLong(),
-                Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(List.of(booking));
-        Mockito.when(bookingRepository.findAllByBookerIdAndStartDateIsAfter(Mockito.anyLong(),
-                Mockito.any(), Mockito.any())).thenReturn(List.of(booking));
-        Mockito.when(bookingRepository.findAllByBookerIdAndEndDateIsBefore(Mockito.anyLong(),
-                Mockito.any(), Mockito.any())).thenReturn(List.of(booking));
-        Mockito.when(bookingRepository.findAllByBookerIdAndStatusEquals(Mockito.anyLong(),
-                Mockito.any(), Mockito.any())).thenReturn(List.of(booking));
-        Mockito.when(bookingRepository.findAllByItemOwnerId(Mockito.anyLong(), Mockito.any())).thenReturn(List.of(booking));
-        Mockito.when(bookingRepository.findAllByItemOwnerIdAndStartDateIsBeforeAndEndDateIsAfter(Mockito.anyLong(),
-                Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(List.of(booking));
-        Mockito.when(bookingRepository.findAllByItemOwnerIdAndStartDateIsAfter(Mockito.anyLong(),
-                Mockito.any(), Mockito.any())).thenReturn(List.of(booking));
-        Mockito.when(bookingRepository.findAllByItemOwnerIdAndEndDateIsBefore(Mockito.anyLong(),
-                Mockito.any(), Mockito.any())).thenReturn(List.of(booking));
-        Mockito.when(bookingRepository.findAllByItemOwnerIdAndStatusEquals(Mockito.anyLong(),
-                Mockito.any(), Mockito.any())).thenReturn(List.of(booking));
+        Mockito.when(bookingRepository.findBookings(Mockito.any(), Mockito.anyLong(), Mockito.anyInt())).thenReturn(List.of(booking));
 
         List<BookingDto> bookings;
         if (isBooker) {
@@ -207,6 +332,132 @@ class BookingServiceImplTest {
         }
         assertFalse(bookings.isEmpty());
         assertEquals(bookings.get(0).getId(), 1L);
+
+        ArgumentCaptor<BookingFilter> filter = ArgumentCaptor.forClass(BookingFilter.class);
+        Mockito.verify(bookingRepository).findBookings(filter.capture(), Mockito.eq(0L), Mockito.eq(10));
+        assertEquals(BookingState.valueOf(state), filter.getValue().getState());
+        assertEquals(isBooker, filter.getValue().isBooker());
+        assertNotNull(filter.getValue().getNow());
+    }
+
+    @Test
+    void shouldThrowExceptionOnUnknownStateOrInvalidPage() {
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(new User()));
+
+        assertThrows(UnknownStateException.class,
+                () -> bookingService.getAllBookingsForBookerOrItemOwner(1L, "unsupported", 0, 10, true));
+        assertThrows(InvalidArgumentsException.class,
+                () -> bookingService.getAllBookingsForBookerOrItemOwner(1L, "all", -1, 10, true));
+        Mockito.verify(bookingRepository, Mockito.never()).findBookings(Mockito.any(), Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    void shouldGetShortBookings() {
+        BookingShortDto shortBooking = BookingShortDto.builder().id(1L).itemId(2L).itemName("name").bookerId(3L).build();
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(new User()));
+        Mockito.when(bookingRepository.findShortBookings(Mockito.any(), Mockito.anyLong(), Mockito.anyInt())).thenReturn(List.of(shortBooking));
+
+        assertEquals(List.of(shortBooking), bookingService.getShortBookingsForBookerOrItemOwner(1L, "past", 3, 5, false));
+        ArgumentCaptor<BookingFilter> filter = ArgumentCaptor.forClass(BookingFilter.class);
+        Mockito.verify(bookingRepository).findShortBookings(filter.capture(), Mockito.eq(3L), Mockito.eq(5));
+        assertEquals(BookingState.PAST, filter.getValue().getState());
+        assertFalse(filter.getValue().isBooker());
+        assertThrows(InvalidArgumentsException.class,
+                () -> bookingService.getShortBookingsForBookerOrItemOwner(1L, "all", 0, 0, false));
+    }
+
+    @Test
+    void shouldReturnKeysetPageWithNextCursor() {
+        Booking booking = Booking.builder()
+                .id(5L)
+                .startDate(LocalDateTime.of(2099, 1, 1, 0, 0))
+                .endDate(LocalDateTime.of(2099, 1, 2, 0, 0))
+                .item(new Item())
+                .booker(new User())
+                .build();
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(new User()));
+        Mockito.when(bookingRepository.findBookings(Mockito.any(), Mockito.anyLong(), Mockito.anyInt())).thenReturn(List.of(booking));
+
+        BookingPageDto page = bookingService.getBookingsPage(1L, "all", "", 1, true);
+        assertEquals(1, page.getBookings().size());
+        BookingCursor cursor = BookingCursor.decode(page.getNextCursor());
+        assertEquals(booking.getStartDate(), cursor.getTime());
+        assertEquals(5L, cursor.getId());
+
+        bookingService.getBookingsPage(1L, "all", page.getNextCursor(), 2, true);
+        ArgumentCaptor<BookingFilter> filter = ArgumentCaptor.forClass(BookingFilter.class);
+        Mockito.verify(bookingRepository, Mockito.times(2)).findBookings(filter.capture(), Mockito.eq(0L), Mockito.anyInt());
+        assertEquals(cursor, filter.getAllValues().get(1).getAfter());
+        assertThrows(InvalidArgumentsException.class, () -> bookingService.getBookingsPage(1L, "all", "%%%", 2, true));
+    }
+
+    @Test
+    void shouldMergeBookerAndOwnerChangesInUpdateOrder() {
+        LocalDateTime time = LocalDateTime.of(2023, 1, 1, 0, 0);
+        Item item = ItemMapper.toItem(itemDto);
+        Booking asBooker = booking(3L, item, BookingStatus.WAITING);
+        asBooker.setUpdatedAt(time.plusSeconds(2));
+        Booking asOwner = booking(4L, item, BookingStatus.APPROVED);
+        asOwner.setUpdatedAt(time.plusSeconds(1));
+        Booking later = booking(5L, item, BookingStatus.REJECTED);
+        later.setUpdatedAt(time.plusSeconds(3));
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(new User()));
+        Mockito.when(bookingRepository.findBookerChanges(Mockito.anyLong(), Mockito.any(), Mockito.anyLong(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(asBooker, later));
+        Mockito.when(bookingRepository.findOwnerChanges(Mockito.anyLong(), Mockito.any(), Mockito.anyLong(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(asOwner));
+
+        BookingPageDto page = bookingService.getBookingChanges(1L, new BookingCursor(time, 2L).encode(), 2);
+        assertEquals(List.of(4L, 3L), page.getBookings().stream().map(BookingDto::getId).collect(Collectors.toList()));
+        assertEquals(new BookingCursor(time.plusSeconds(2), 3L), BookingCursor.decode(page.getNextCursor()));
+        Mockito.verify(bookingRepository).findBookerChanges(Mockito.eq(1L), Mockito.eq(time), Mockito.eq(2L), Mockito.any(),
+                Mockito.eq(PageRequest.of(0, 2)));
+    }
+
+    @Test
+    void shouldKeepChangesCursorWhenNothingChanged() {
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(new User()));
+        String since = new BookingCursor(LocalDateTime.of(2023, 1, 1, 0, 0), 7L).encode();
+
+        assertEquals(since, bookingService.getBookingChanges(1L, since, 10).getNextCursor());
+        assertTrue(bookingService.getBookingChanges(1L, null, 10).getBookings().isEmpty());
+        assertThrows(InvalidArgumentsException.class, () -> bookingService.getBookingChanges(1L, null, 0));
+        assertThrows(InvalidArgumentsException.class, () -> bookingService.getBookingChanges(1L, "%%%", 10));
+    }
+
+    @Test
+    void shouldNotMoveChangesCursorPastChangeCommittedAfterLag() throws Exception {
+        ReflectionTestUtils.setField(bookingService, "changesSettleLag", Duration.ofMillis(10));
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(new User()));
+        ArgumentCaptor<LocalDateTime> until = ArgumentCaptor.forClass(LocalDateTime.class);
+        LocalDateTime changed;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            changed = bookingChangeClock.stamp();
+            Thread.sleep(50);
+            bookingService.getBookingChanges(1L, null, 10);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        bookingService.getBookingChanges(1L, null, 10);
+
+        Mockito.verify(bookingRepository, Mockito.times(2)).findBookerChanges(Mockito.eq(1L), Mockito.any(), Mockito.anyLong(),
+                until.capture(), Mockito.any());
+        assertTrue(until.getAllValues().get(0).isBefore(changed));
+        assertTrue(until.getAllValues().get(1).isAfter(changed));
+    }
+
+    @Test
+    void shouldLimitChangesPageSize() {
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(new User()));
+
+        bookingService.getBookingChanges(1L, null, 1_000_000);
+        Mockito.verify(bookingRepository).findBookerChanges(Mockito.eq(1L), Mockito.any(), Mockito.anyLong(), Mockito.any(),
+                Mockito.eq(PageRequest.of(0, 500)));
+        Mockito.verify(bookingRepository).findOwnerChanges(Mockito.eq(1L), Mockito.any(), Mockito.anyLong(), Mockito.any(),
+                Mockito.eq(PageRequest.of(0, 500)));
     }
 
     @Test
@@ -233,4 +484,11 @@ class BookingServiceImplTest {
 
         assertNotNull(bookingService.getBooking(1L, 1L));
     }
-}
\ No newline at end of file
+
+    private Booking booking(Long id, Item item, BookingStatus status) {
+        Booking booking = BookingMapper.toBooking(bookingSimplyDto, item, UserMapper.toUser(userDto));
+        booking.setId(id);
+        booking.setStatus(status);
+        return booking;
+    }
+}
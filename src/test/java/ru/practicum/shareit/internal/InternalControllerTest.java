@@ -0,0 +1,76 @@
+package ru.practicum.shareit.internal;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.internal.dto.CacheStatsDto;
+import ru.practicum.shareit.internal.dto.PerfStatsDto;
+import ru.practicum.shareit.internal.dto.PerfSummaryDto;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.user.service.UserExistenceGuard;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = InternalController.class)
+class InternalControllerTest {
+    @Autowired
+    private MockMvc mvc;
+    @MockBean
+    private ItemViewCache itemViewCache;
+    @MockBean
+    private UserExistenceGuard userExistenceGuard;
+    @MockBean
+    private PerfMetrics perfMetrics;
+    @MockBean
+    private SecondLevelCacheStats secondLevelCacheStats;
+
+    @Test
+    void shouldReturnCacheStats() throws Exception {
+        Mockito.when(itemViewCache.getStats()).thenReturn(CacheStatsDto.builder()
+                .name("item-view")
+                .hits(3L)
+                .misses(1L)
+                .hitRatio(0.75)
+                .build());
+        Mockito.when(userExistenceGuard.getStats()).thenReturn(CacheStatsDto.builder()
+                .name("user-ids")
+                .build());
+        Mockito.when(secondLevelCacheStats.getStats()).thenReturn(List.of(CacheStatsDto.builder()
+                .name("l2:shareit.item")
+                .hits(9L)
+                .build()));
+
+        mvc.perform(get("/internal/caches"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is("item-view")))
+                .andExpect(jsonPath("$[0].hitRatio", is(0.75)))
+                .andExpect(jsonPath("$[1].name", is("user-ids")))
+                .andExpect(jsonPath("$[2].name", is("l2:shareit.item")));
+    }
+
+    @Test
+    void shouldReturnPerfSummary() throws Exception {
+        Mockito.when(perfMetrics.getSummary()).thenReturn(PerfSummaryDto.builder()
+                .endpoints(List.of(PerfStatsDto.builder()
+                        .name("GET /items")
+                        .count(2L)
+                        .sqlPerCall(4.0)
+                        .build()))
+                .services(List.of())
+                .build());
+
+        mvc.perform(get("/internal/perf"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.endpoints[0].name", is("GET /items")))
+                .andExpect(jsonPath("$.endpoints[0].sqlPerCall", is(4.0)))
+                .andExpect(jsonPath("$.services.length()", is(0)));
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.internal;
+
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.internal.dto.PerfStatsDto;
+import ru.practicum.shareit.internal.dto.PerfSummaryDto;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfMetricsTest {
+    private PerfMetrics perfMetrics;
+
+    @BeforeEach
+    void beforeEach() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder().percentiles(0.5, 0.95).build().merge(config);
+            }
+        });
+        perfMetrics = new PerfMetrics(registry);
+    }
+
+    @Test
+    void shouldSummarizeEndpointsBySqlAndJdbcTime() {
+        perfMetrics.recordRequest("GET", "/items", TimeUnit.MILLISECONDS.toNanos(10), 3, TimeUnit.MILLISECONDS.toNanos(4));
+        perfMetrics.recordRequest("GET", "/items", TimeUnit.MILLISECONDS.toNanos(30), 5, TimeUnit.MILLISECONDS.toNanos(6));
+        perfMetrics.recordRequest("GET", "/users", TimeUnit.MILLISECONDS.toNanos(1), 1, 0);
+
+        PerfSummaryDto summary = perfMetrics.getSummary();
+
+        assertEquals(2, summary.getEndpoints().size());
+        PerfStatsDto items = summary.getEndpoints().get(0);
+        assertEquals("GET /items", items.getName());
+        assertEquals(2L, items.getCount());
+        assertEquals(20.0, items.getMeanMs(), 0.001);
+        assertEquals(30.0, items.getMaxMs(), 0.001);
+        assertNotNull(items.getP95Ms());
+        assertEquals(4.0, items.getSqlPerCall(), 0.001);
+        assertEquals(5.0, items.getMaxSql(), 0.001);
+        assertEquals(5.0, items.getJdbcMsPerCall(), 0.001);
+        assertEquals("GET /users", summary.getEndpoints().get(1).getName());
+    }
+
+    @Test
+    void shouldSummarizeServiceMethods() {
+        perfMetrics.recordService("ItemService", "getAllItems", TimeUnit.MILLISECONDS.toNanos(2), 4);
+        perfMetrics.recordService("UserService", "getUser", TimeUnit.MILLISECONDS.toNanos(5), 1);
+
+        PerfSummaryDto summary = perfMetrics.getSummary();
+
+        assertTrue(summary.getEndpoints().isEmpty());
+        assertEquals("UserService.getUser", summary.getServices().get(0).getName());
+        PerfStatsDto items = summary.getServices().get(1);
+        assertEquals("ItemService.getAllItems", items.getName());
+        assertEquals(4.0, items.getSqlPerCall(), 0.001);
+        assertNull(items.getJdbcMsPerCall());
+    }
+}
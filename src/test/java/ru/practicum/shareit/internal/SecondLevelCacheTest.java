@@ -0,0 +1,106 @@
+package ru.practicum.shareit.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.internal.dto.CacheStatsDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class SecondLevelCacheTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private SecondLevelCacheStats secondLevelCacheStats;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Test
+    void shouldReadUserFromCacheAndSeeCommittedUpdate() {
+        UserDto user = userService.addUser(new UserDto(null, "cached", "cached@email.ru"));
+        userService.getUser(user.getId());
+
+        SqlStatementCounter.reset();
+        assertEquals("cached", userService.getUser(user.getId()).getName());
+        assertEquals(0, SqlStatementCounter.count());
+
+        userService.updateUser(user.getId(), new UserDto(null, "renamed", null));
+        assertEquals("renamed", userService.getUser(user.getId()).getName());
+    }
+
+    @Test
+    void shouldCacheOwnerItemsQueryUntilItemsChange() {
+        UserDto owner = userService.addUser(new UserDto(null, "owner", "cache-owner@email.ru"));
+        ItemDto item = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("drill")
+                .description("cordless drill")
+                .available(true)
+                .build());
+        itemRepository.findAllByOwnerId(owner.getId());
+
+        SqlStatementCounter.reset();
+        assertEquals(List.of("drill"), names(itemRepository.findAllByOwnerId(owner.getId())));
+        assertEquals(0, SqlStatementCounter.count());
+
+        itemService.updateItem(owner.getId(), item.getId(), ItemDto.builder().name("hammer").build());
+        assertEquals(List.of("hammer"), names(itemRepository.findAllByOwnerId(owner.getId())));
+
+        CacheStatsDto queries = secondLevelCacheStats.getStats().stream()
+                .filter(s -> s.getName().equals("l2:" + SecondLevelCacheRegionFactory.ITEM_QUERY_REGION))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(queries.getHits() > 0);
+        assertEquals(2000, queries.getMaxSize());
+    }
+
+    @Test
+    void shouldForgetItemsAndRequestsDeletedWithOwner() {
+        UserDto owner = userService.addUser(new UserDto(null, "owner", "deleted-owner@email.ru"));
+        UserDto reader = userService.addUser(new UserDto(null, "reader", "reader@email.ru"));
+        ItemDto item = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("saw")
+                .description("hand saw")
+                .available(true)
+                .build());
+        ItemRequestDto request = itemRequestService.addRequest(owner.getId(), ItemRequestDto.builder()
+                .description("need a ladder")
+                .build());
+        assertTrue(itemRepository.findById(item.getId()).isPresent());
+        assertTrue(itemRequestRepository.findById(request.getId()).isPresent());
+        assertEquals(1, itemRepository.findAllByOwnerId(owner.getId()).size());
+
+        userService.deleteUser(owner.getId());
+
+        assertFalse(itemRepository.findById(item.getId()).isPresent());
+        assertFalse(itemRequestRepository.findById(request.getId()).isPresent());
+        assertTrue(itemRepository.findAllByOwnerId(owner.getId()).isEmpty());
+        assertThrows(NotFoundException.class, () -> itemService.getItem(item.getId(), reader.getId()));
+    }
+
+    private static List<String> names(List<Item> items) {
+        return items.stream().map(Item::getName).collect(Collectors.toList());
+    }
+}
@@ -10,11 +10,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.IntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
 import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -37,6 +43,8 @@ public class ItemControllerTest {
 
     @MockBean
     private ItemService itemService;
+    @MockBean
+    private ItemImportService itemImportService;
     private ItemDto itemDtoInput;
     private ItemDto itemDtoOutput1;
     private ItemDto itemDtoOutput2;
@@ -155,6 +163,28 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.available", is(true)));
     }
 
+    @Test
+    public void shouldImportItems() throws Exception {
+        Mockito
+                .when(itemImportService.importItems(eq(1L), any()))
+                .thenReturn(ItemImportResultDto.builder()
+                        .total(2)
+                        .imported(1)
+                        .failed(1)
+                        .rows(List.of(ItemImportRowDto.builder().row(1).itemId(5L).build(),
+                                ItemImportRowDto.builder().row(2).error("name: must not be null").build()))
+                        .build());
+
+        mockMvc.perform(post("/items/import")
+                        .header(OWNER_ID, 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"name\",\"description\":\"d\",\"available\":true}\n{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.rows[0].itemId", is(5)))
+                .andExpect(jsonPath("$.rows[1].error", is("name: must not be null")));
+    }
+
     @Test
     public void shouldUpdateItem() throws Exception {
         ItemDto itemDtoForUpdate = ItemDto.builder()
@@ -227,6 +257,30 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.authorName", is("author")));
     }
 
+    @Test
+    public void shouldReturnAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2099, 1, 1, 0, 0);
+        ItemAvailabilityDto availability = ItemAvailabilityDto.builder()
+                .itemId(1L)
+                .from(from)
+                .to(from.plusDays(3))
+                .busy(List.of(new IntervalDto(from.plusDays(1), from.plusDays(2))))
+                .free(List.of(new IntervalDto(from, from.plusDays(1)), new IntervalDto(from.plusDays(2), from.plusDays(3))))
+                .build();
+        Mockito
+                .when(itemService.getAvailability(1L, from, from.plusDays(3)))
+                .thenReturn(availability);
+
+        mockMvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2099-01-01T00:00:00")
+                        .param("to", "2099-01-04T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(1)))
+                .andExpect(jsonPath("$.busy.length()", is(1)))
+                .andExpect(jsonPath("$.busy[0].start", is("2099-01-02T00:00:00")))
+                .andExpect(jsonPath("$.free.length()", is(2)));
+    }
+
     private static String asJsonString(final Object obj) {
         try {
             return new ObjectMapper().writeValueAsString(obj);
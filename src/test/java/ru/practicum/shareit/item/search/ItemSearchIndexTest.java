@@ -0,0 +1,133 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private ItemSearchIndex itemSearchIndex;
+
+    private ItemDto drill;
+    private ItemDto screwdriver;
+
+    @BeforeEach
+    void beforeEach() {
+        drill = ItemDto.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build();
+        screwdriver = ItemDto.builder()
+                .id(2L)
+                .name("Отвертка")
+                .description("Аккумуляторная отвертка, работает как дрель")
+                .available(true)
+                .build();
+        Mockito.when(itemRepository.findAll()).thenReturn(List.of(ItemMapper.toItem(drill), ItemMapper.toItem(screwdriver)));
+        itemSearchIndex.rebuild();
+    }
+
+    @Test
+    void shouldFindItemsBySubstringIgnoringCase() {
+        assertEquals(List.of(1L, 2L), ids(itemSearchIndex.search("ДрЕлЬ")));
+        assertEquals(List.of(2L), ids(itemSearchIndex.search("аккум")));
+        assertEquals(List.of(2L), ids(itemSearchIndex.search("ет как")));
+        assertTrue(itemSearchIndex.search("пила").isEmpty());
+    }
+
+    @Test
+    void shouldFindItemsByShortQuery() {
+        assertEquals(List.of(1L, 2L), ids(itemSearchIndex.search("др")));
+        assertEquals(List.of(2L), ids(itemSearchIndex.search("ка")));
+        assertEquals(List.of(2L), ids(itemSearchIndex.search(", ")));
+        assertEquals(List.of(1L, 2L), ids(itemSearchIndex.search("Ь")));
+        assertTrue(itemSearchIndex.search("!").isEmpty());
+        assertTrue(itemSearchIndex.search("").isEmpty());
+    }
+
+    @Test
+    void shouldUpdateIndexIncrementally() {
+        drill.setName("Перфоратор");
+        drill.setDescription("Мощный перфоратор");
+        itemSearchIndex.put(drill, 10L);
+        assertEquals(List.of(2L), ids(itemSearchIndex.search("дрель")));
+        assertEquals(List.of(1L), ids(itemSearchIndex.search("перфо")));
+
+        itemSearchIndex.remove(2L);
+        assertTrue(itemSearchIndex.search("дрель").isEmpty());
+    }
+
+    @Test
+    void shouldSkipUnavailableItems() {
+        screwdriver.setAvailable(false);
+        itemSearchIndex.put(screwdriver, 10L);
+        assertEquals(List.of(1L), ids(itemSearchIndex.search("дрель")));
+        assertTrue(itemSearchIndex.search("отвертка").isEmpty());
+        assertTrue(itemSearchIndex.search(", ").isEmpty());
+
+        screwdriver.setAvailable(true);
+        itemSearchIndex.put(screwdriver, 10L);
+        assertEquals(List.of(2L), ids(itemSearchIndex.search("отвертка")));
+    }
+
+    @Test
+    void shouldApplyChangesOnlyAfterCommit() {
+        ItemDto saw = ItemDto.builder().id(3L).name("Пила").description("Ножовка").available(true).build();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemSearchIndex.put(saw, 10L);
+            itemSearchIndex.remove(1L);
+            assertTrue(itemSearchIndex.search("пила").isEmpty());
+            assertEquals(List.of(1L, 2L), ids(itemSearchIndex.search("дрель")));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertTrue(itemSearchIndex.search("пила").isEmpty());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(List.of(3L), ids(itemSearchIndex.search("пила")));
+            assertEquals(List.of(2L), ids(itemSearchIndex.search("дрель")));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldRemoveItemsOfRemovedOwner() {
+        itemSearchIndex.put(drill, 10L);
+        itemSearchIndex.put(screwdriver, 11L);
+
+        itemSearchIndex.onUserChanged(new UserChangedEvent(10L, false));
+        assertEquals(List.of(1L, 2L), ids(itemSearchIndex.search("дрель")));
+
+        itemSearchIndex.onUserChanged(new UserChangedEvent(10L, true));
+        assertEquals(List.of(2L), ids(itemSearchIndex.search("дрель")));
+    }
+
+    private List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).collect(Collectors.toList());
+    }
+}
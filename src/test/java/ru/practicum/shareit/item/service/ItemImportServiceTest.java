@@ -0,0 +1,149 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.matching.RequestMatcher;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceGuard;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ExtendWith(MockitoExtension.class)
+class ItemImportServiceTest {
+    private static final String VALID = "{\"name\":\"drill\",\"description\":\"cordless\",\"available\":true}";
+
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private RequestMatcher requestMatcher;
+    @Mock
+    private UserExistenceGuard userExistenceGuard;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ItemImportService importService;
+
+    @BeforeEach
+    void beforeEach() {
+        importService = new ItemImportService(itemRepository, userRepository, itemRequestRepository, itemSearchIndex,
+                requestMatcher, userExistenceGuard, entityManager, objectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionManager, 2, 10);
+        AtomicLong ids = new AtomicLong();
+        Mockito.when(userExistenceGuard.exists(1L)).thenReturn(true);
+        Mockito.when(userRepository.getReferenceById(1L)).thenReturn(User.builder().id(1L).build());
+        Mockito.when(itemRepository.saveAll(Mockito.anyCollection())).thenAnswer(invocation -> {
+            List<Item> items = List.copyOf(invocation.<Collection<Item>>getArgument(0));
+            items.forEach(item -> item.setId(ids.incrementAndGet()));
+            return items;
+        });
+    }
+
+    @Test
+    void shouldImportJsonArrayInBatches() throws Exception {
+        ItemImportResultDto result = importService.importItems(1L, body("[" + VALID + "," + VALID + "," + VALID + "]"));
+
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getFailed());
+        assertEquals(List.of(1L, 2L, 3L), List.of(result.getRows().get(0).getItemId(),
+                result.getRows().get(1).getItemId(), result.getRows().get(2).getItemId()));
+        Mockito.verify(itemRepository, Mockito.times(2)).saveAll(Mockito.anyCollection());
+        Mockito.verify(transactionManager, Mockito.times(2)).commit(Mockito.any());
+        Mockito.verify(entityManager, Mockito.times(2)).clear();
+        Mockito.verify(itemSearchIndex, Mockito.times(3)).put(Mockito.any(ItemDto.class), Mockito.eq(1L));
+        Mockito.verify(requestMatcher, Mockito.times(3)).match(Mockito.any(ItemDto.class), Mockito.eq(1L));
+    }
+
+    @Test
+    void shouldReportInvalidRowsOfNdjsonAndImportTheRest() throws Exception {
+        ItemImportResultDto result = importService.importItems(1L,
+                body(VALID + "\n{\"description\":\"no name\",\"available\":true}\n{\"name\":\"x\",\"available\":\"maybe\"}\n" + VALID + "\n"));
+
+        assertEquals(4, result.getTotal());
+        assertEquals(2, result.getImported());
+        assertNull(result.getRows().get(0).getError());
+        assertEquals("name: must not be empty, name: must not be null", result.getRows().get(1).getError());
+        assertEquals(3, result.getRows().get(2).getRow());
+        assertNull(result.getRows().get(2).getItemId());
+        assertNull(result.getRows().get(3).getError());
+    }
+
+    @Test
+    void shouldResolveRequestsOncePerBatch() throws Exception {
+        Mockito.when(itemRequestRepository.findAllById(Mockito.anyIterable()))
+                .thenReturn(List.of(ItemRequest.builder().id(5L).build()));
+        String withRequest = "{\"name\":\"drill\",\"description\":\"cordless\",\"available\":true,\"requestId\":5}";
+        String unknownRequest = "{\"name\":\"drill\",\"description\":\"cordless\",\"available\":true,\"requestId\":6}";
+
+        ItemImportResultDto result = importService.importItems(1L, body("[" + withRequest + "," + unknownRequest + "]"));
+
+        assertEquals(1, result.getImported());
+        assertEquals("This request was not found", result.getRows().get(1).getError());
+        Mockito.verify(itemRequestRepository, Mockito.times(1)).findAllById(Mockito.anyIterable());
+        Mockito.verify(requestMatcher).close(5L);
+    }
+
+    @Test
+    void shouldStopOnMalformedJson() throws Exception {
+        ItemImportResultDto result = importService.importItems(1L, body(VALID + "\n{\"name\":"));
+
+        assertEquals(2, result.getTotal());
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getRows().get(1).getRow());
+    }
+
+    @Test
+    void shouldFailWhenUserNotFound() {
+        assertThrows(NotFoundException.class, () -> importService.importItems(2L, body("[]")));
+        Mockito.verify(itemRepository, Mockito.never()).saveAll(Mockito.anyCollection());
+    }
+
+    /**
+     * Как и в приложении, DTO без конструктора по умолчанию создаются через конструктор с именами параметров
+     */
+    private static ObjectMapper objectMapper() {
+        return new ObjectMapper().registerModule(new ParameterNamesModule(JsonCreator.Mode.DEFAULT));
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -9,35 +9,44 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
 import ru.practicum.shareit.booking.dto.BookingSimplyDto;
+import ru.practicum.shareit.booking.dto.IntervalDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exceptions.InvalidArgumentsException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.matching.RequestMatcher;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceGuard;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -54,6 +63,18 @@ class ItemServiceTest {
     private CommentRepository commentRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemViewCache itemViewCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private RequestMatcher requestMatcher;
+    @Mock
+    private UserExistenceGuard userExistenceGuard;
     @InjectMocks
     ItemService itemService;
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
@@ -69,6 +90,9 @@ class ItemServiceTest {
 
     @BeforeEach
     void beforeEach() {
+        Mockito.when(userExistenceGuard.exists(Mockito.anyLong()))
+                .thenAnswer(invocation -> userRepository.findById(invocation.getArgument(0)).isPresent()
+                        || userRepository.existsById(invocation.getArgument(0)));
         itemDto = ItemDto.builder()
                 .id(1L)
                 .name("item")
@@ -115,21 +139,29 @@ class ItemServiceTest {
 
     @Test
     void shouldGetAllItemsOrThrowException() {
-        Booking booking1 = booking;
-        booking1.setId(2L);
+        BookingSimplyDto lastBooking = BookingMapper.toBookingSimplyDto(booking);
+        lastBooking.setStart(LocalDateTime.now().minusDays(2));
+        BookingSimplyDto nextBooking = BookingMapper.toBookingSimplyDto(booking);
+        nextBooking.setId(2L);
+        nextBooking.setStart(LocalDateTime.now().plusDays(1));
         Mockito.when(userRepository.existsById(user.getId())).thenReturn(true);
         assertThrows(NotFoundException.class, () -> itemService.getAllItems(2L));
 
-        Mockito.when(commentRepository.existsByItemId(item.getId())).thenReturn(true);
         Mockito.when(itemRepository.findAllByOwnerId(user.getId())).thenReturn(List.of(item));
         Mockito.when(commentRepository.getCommentsByItemIdIn(List.of(item.getId()))).thenReturn(List.of(comment));
-        Mockito.when(bookingRepository.getBookingsByItemIdInOrderByStartDateAsc(List.of(item.getId()))).thenReturn(List.of(booking,booking1));
+        Mockito.when(bookingRepository.findLastBookings(Mockito.eq(List.of(item.getId())), Mockito.any(),
+                Mockito.eq(BookingStatus.APPROVED))).thenReturn(List.of(lastBooking));
+        Mockito.when(bookingRepository.findNextBookings(Mockito.eq(List.of(item.getId())), Mockito.any(),
+                Mockito.eq(BookingStatus.APPROVED))).thenReturn(List.of(nextBooking));
 
         List<ItemWithCommentDto> result = itemService.getAllItems(user.getId());
 
         assertNotNull(result);
         assertEquals(result.get(0).getId(), item.getId());
         assertFalse(result.get(0).getComments().isEmpty());
+        assertEquals(1L, result.get(0).getLastBooking().getId());
+        assertEquals(2L, result.get(0).getNextBooking().getId());
+        Mockito.verify(itemRepository, Mockito.times(1)).findAllByOwnerId(user.getId());
     }
 
     @Test
@@ -141,12 +173,11 @@ class ItemServiceTest {
         Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
         assertThrows(NotFoundException.class, () -> itemService.getItem(2L, 1L));
 
-        Mockito.when(commentRepository.existsByItemId(item.getId())).thenReturn(true);
         Mockito.when(commentRepository.getCommentsByItemId(item.getId())).thenReturn(List.of(comment));
-        Mockito.when(bookingRepository.findAllByStartDateIsAfterAndItemIdAndStatusOrderByStartDateAsc(Mockito.any(),
-                Mockito.anyLong(), Mockito.any())).thenReturn(List.of(booking));
-        Mockito.when(bookingRepository.findAllByStartDateIsBeforeAndItemIdAndStatusOrderByStartDateDesc(Mockito.any(),
-                Mockito.anyLong(), Mockito.any())).thenReturn(List.of(booking));
+        Mockito.when(bookingRepository.findNextBooking(Mockito.anyLong(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.of(BookingMapper.toBookingSimplyDto(booking)));
+        Mockito.when(bookingRepository.findLastBooking(Mockito.anyLong(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.of(BookingMapper.toBookingSimplyDto(booking)));
 
         ItemWithCommentDto result = itemService.getItem(1L, 1L);
 
@@ -154,6 +185,20 @@ class ItemServiceTest {
         assertEquals(result.getNextBooking().getId(), booking.getId());
         assertEquals(result.getLastBooking().getId(), booking.getId());
         assertFalse(result.getComments().isEmpty());
+        Mockito.verify(itemViewCache).put(Mockito.eq(1L), Mockito.eq(1L), Mockito.eq(Set.of(comment.getAuthor().getId())),
+                Mockito.eq(true), Mockito.eq(result), Mockito.anyLong());
+    }
+
+    @Test
+    void shouldGetItemFromCache() {
+        ItemWithCommentDto cachedItem = ItemMapper.toItemWithCommentDto(item);
+        Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        Mockito.when(itemViewCache.get(item.getId(), user.getId())).thenReturn(cachedItem);
+
+        ItemWithCommentDto result = itemService.getItem(item.getId(), user.getId());
+
+        assertEquals(cachedItem, result);
+        Mockito.verifyNoInteractions(itemRepository, commentRepository, bookingRepository);
     }
 
     @Test
@@ -169,6 +214,7 @@ class ItemServiceTest {
         itemDto.setRequestId(1L);
         ItemDto result = itemService.addItem(user.getId(), itemDto);
         assertNotNull(result);
+        Mockito.verify(itemSearchIndex).put(result, user.getId());
     }
 
     @Test
@@ -187,28 +233,68 @@ class ItemServiceTest {
 
         assertNotNull(result);
         assertEquals("updated", result.getName());
+        Mockito.verify(itemSearchIndex).put(result, user.getId());
+        Mockito.verify(requestMatcher).submit(result, 1L);
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(ItemChangedEvent.class));
     }
 
     @Test
     void shouldThrowExceptionOnDeleteNotExistsItem() {
-        Mockito.when(itemRepository.existsById(item.getId())).thenReturn(true);
+        Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
         assertThrows(NotFoundException.class, () -> itemService.deleteItem(2L));
 
         itemService.deleteItem(1L);
-        Mockito.verify(itemRepository).deleteById(1L);
+        Mockito.verify(itemRepository).delete(item);
+        Mockito.verify(itemSearchIndex).remove(1L);
+        Mockito.verify(requestMatcher).removeItem(1L);
+        Mockito.verify(bookingIntervalIndex).removeItem(1L);
+        Mockito.verify(requestMatcher, Mockito.never()).put(Mockito.any());
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(ItemChangedEvent.class));
+    }
+
+    @Test
+    void shouldReopenRequestWhenItsOnlyItemIsDeleted() {
+        item.setRequest(itemRequest);
+        Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        Mockito.when(itemRepository.existsByRequestId(itemRequest.getId())).thenReturn(false);
+
+        itemService.deleteItem(1L);
+        Mockito.verify(requestMatcher).put(itemRequest);
+
+        Mockito.when(itemRepository.existsByRequestId(itemRequest.getId())).thenReturn(true);
+        itemService.deleteItem(1L);
+        Mockito.verify(requestMatcher, Mockito.times(1)).put(itemRequest);
+    }
+
+    @Test
+    void shouldGetAvailabilityOrThrowException() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(10);
+        assertThrows(NotFoundException.class, () -> itemService.getAvailability(2L, from, to));
+
+        Mockito.when(itemRepository.existsById(item.getId())).thenReturn(true);
+        assertThrows(InvalidArgumentsException.class, () -> itemService.getAvailability(1L, to, from));
+
+        Mockito.when(bookingIntervalIndex.getBusyIntervals(1L, from, to)).thenReturn(List.of(
+                new IntervalDto(from, from.plusDays(2)),
+                new IntervalDto(from.plusDays(5), from.plusDays(6))));
+
+        ItemAvailabilityDto result = itemService.getAvailability(1L, from, to);
+
+        assertEquals(2, result.getBusy().size());
+        assertEquals(List.of(new IntervalDto(from.plusDays(2), from.plusDays(5)),
+                new IntervalDto(from.plusDays(6), to)), result.getFree());
     }
 
     @Test
     void shouldSearchItems() {
         String text = "";
-        Mockito.when(itemRepository.findAllByNameOrDescriptionContainingIgnoreCaseAndAvailableIsTrue(text, text))
-                .thenReturn(Collections.emptyList());
-
         List<ItemDto> result = itemService.searchItems(text);
         assertTrue(result.isEmpty());
+        Mockito.verifyNoInteractions(itemSearchIndex);
+
         text = "item";
-        Mockito.when(itemRepository.findAllByNameOrDescriptionContainingIgnoreCaseAndAvailableIsTrue(text, text))
-                .thenReturn(List.of(item));
+        Mockito.when(itemSearchIndex.search(text)).thenReturn(List.of(itemDto));
         result = itemService.searchItems(text);
         assertFalse(result.isEmpty());
     }
@@ -230,5 +316,6 @@ class ItemServiceTest {
         Mockito.when(commentRepository.save(Mockito.any())).thenReturn(comment);
         CommentDto result = itemService.addComment(1L, 1L, commentDto);
         assertNotNull(result);
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(ItemChangedEvent.class));
     }
 }
\ No newline at end of file
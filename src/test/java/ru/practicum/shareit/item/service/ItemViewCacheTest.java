@@ -0,0 +1,112 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingSimplyDto;
+import ru.practicum.shareit.internal.dto.CacheStatsDto;
+import ru.practicum.shareit.item.dto.ItemWithCommentDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemViewCacheTest {
+    private ItemViewCache cache;
+    private ItemWithCommentDto item;
+
+    @BeforeEach
+    void beforeEach() {
+        cache = new ItemViewCache(2, Duration.ofMinutes(1));
+        item = ItemWithCommentDto.builder()
+                .id(1L)
+                .name("item")
+                .description("description")
+                .available(true)
+                .comments(new ArrayList<>())
+                .build();
+    }
+
+    @Test
+    void shouldKeepOwnerAndPublicViewsApart() {
+        cache.put(1L, 10L, Set.of(), true, item, cache.version());
+        assertNotNull(cache.get(1L, 10L));
+        assertNull(cache.get(1L, 20L));
+
+        cache.put(1L, 10L, Set.of(), false, item, cache.version());
+        assertNotNull(cache.get(1L, 20L));
+
+        CacheStatsDto stats = cache.getStats();
+        assertEquals(2L, stats.getHits());
+        assertEquals(1L, stats.getMisses());
+    }
+
+    @Test
+    void shouldInvalidateOnEvents() {
+        cache.put(1L, 10L, Set.of(), true, item, cache.version());
+        cache.onItemChanged(new ItemChangedEvent(1L));
+        assertNull(cache.get(1L, 10L));
+
+        cache.put(1L, 10L, Set.of(), false, item, cache.version());
+        cache.onUserChanged(new UserChangedEvent(10L, true));
+        assertNull(cache.get(1L, 20L));
+        assertEquals(2L, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    void shouldInvalidateOnlyViewsShowingChangedUser() {
+        ItemWithCommentDto booked = ItemWithCommentDto.builder()
+                .id(2L)
+                .name("item")
+                .description("description")
+                .available(true)
+                .lastBooking(BookingSimplyDto.builder().id(5L).bookerId(30L).build())
+                .comments(new ArrayList<>())
+                .build();
+        cache.put(1L, 10L, Set.of(20L), false, item, cache.version());
+        cache.put(2L, 11L, Set.of(), true, booked, cache.version());
+
+        cache.onUserChanged(new UserChangedEvent(30L, false));
+        assertNotNull(cache.get(1L, 40L));
+        assertNotNull(cache.get(2L, 11L));
+
+        cache.onUserChanged(new UserChangedEvent(20L, false));
+        assertNull(cache.get(1L, 40L));
+        assertNotNull(cache.get(2L, 11L));
+
+        cache.onUserChanged(new UserChangedEvent(30L, true));
+        assertNull(cache.get(2L, 11L));
+    }
+
+    @Test
+    void shouldSkipPutAfterConcurrentInvalidation() {
+        long version = cache.version();
+        cache.invalidate(1L);
+        cache.put(1L, 10L, Set.of(), true, item, version);
+        assertNull(cache.get(1L, 10L));
+    }
+
+    @Test
+    void shouldEvictEldestEntryAndExpireByTtl() {
+        cache.put(1L, 10L, Set.of(), false, item, cache.version());
+        cache.put(2L, 10L, Set.of(), false, item, cache.version());
+        cache.put(3L, 10L, Set.of(), false, item, cache.version());
+        assertNull(cache.get(1L, 20L));
+        assertEquals(1L, cache.getStats().getEvictions());
+
+        ItemViewCache expiringCache = new ItemViewCache(2, Duration.ZERO);
+        expiringCache.put(1L, 10L, Set.of(), false, item, expiringCache.version());
+        assertNull(expiringCache.get(1L, 20L));
+        assertEquals(1L, expiringCache.getStats().getExpirations());
+    }
+
+    @Test
+    void shouldReturnCopyOfCachedItem() {
+        cache.put(1L, 10L, Set.of(), false, item, cache.version());
+        cache.get(1L, 20L).setName("changed");
+        assertEquals("item", cache.get(1L, 20L).getName());
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.ArrayList;
@@ -19,6 +20,7 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemRequestController.class)
@@ -91,4 +93,20 @@ class ItemRequestControllerTest {
                 .andExpect(status().isOk());
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldReturnMatches() throws Exception {
+        RequestMatchDto match = RequestMatchDto.builder()
+                .requestId(1L)
+                .requestDescription("description")
+                .score(1.0)
+                .build();
+        Mockito
+                .when(itemRequestService.getMatches(1L))
+                .thenReturn(List.of(match));
+        mockMvc.perform(get("/requests/matches")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(OWNER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(match))));
+    }
+}
@@ -0,0 +1,159 @@
+package ru.practicum.shareit.request.matching;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestMatcherTest {
+    private final ItemRequestRepository itemRequestRepository = Mockito.mock(ItemRequestRepository.class);
+    private RequestMatcher requestMatcher;
+
+    @BeforeEach
+    void beforeEach() {
+        Mockito.when(itemRequestRepository.findAllOpen()).thenReturn(List.of(
+                request(1L, 10L, "Нужна аккумуляторная дрель"),
+                request(2L, 11L, "Ищу дрель на выходные"),
+                request(3L, 12L, "Палатка на двоих")));
+        requestMatcher = new RequestMatcher(itemRequestRepository, 0.5, 5, 2);
+        requestMatcher.rebuild();
+    }
+
+    @Test
+    void shouldDeliverBestMatchesToRequestors() {
+        List<RequestMatchDto> matches = requestMatcher.match(item(100L, "Дрель", "Аккумуляторная дрель с набором бит"), 20L);
+
+        assertEquals(List.of(1L), matches.stream().map(RequestMatchDto::getRequestId).collect(Collectors.toList()));
+        assertEquals(2.0 / 3, matches.get(0).getScore(), 1e-9);
+        assertEquals(100L, requestMatcher.getInbox(10L).get(0).getItem().getId());
+        assertTrue(requestMatcher.getInbox(11L).isEmpty());
+        assertTrue(requestMatcher.getInbox(12L).isEmpty());
+    }
+
+    @Test
+    void shouldSkipOwnRequestsUnavailableItemsAndClosedRequests() {
+        assertTrue(requestMatcher.match(item(100L, "Палатка", "Палатка на двоих"), 12L).isEmpty());
+
+        ItemDto unavailable = item(101L, "Палатка", "Палатка на двоих");
+        unavailable.setAvailable(false);
+        assertTrue(requestMatcher.match(unavailable, 20L).isEmpty());
+
+        requestMatcher.close(3L);
+        assertTrue(requestMatcher.match(item(102L, "Палатка", "Палатка на двоих"), 20L).isEmpty());
+    }
+
+    @Test
+    void shouldReplaceMatchesOfUpdatedItemAndKeepInboxBounded() {
+        requestMatcher.match(item(100L, "Палатка", "Палатка на двоих"), 20L);
+        requestMatcher.match(item(100L, "Палатка", "Большая палатка на двоих"), 20L);
+        assertEquals(1, requestMatcher.getInbox(12L).size());
+
+        requestMatcher.match(item(101L, "Палатка", "Палатка на двоих"), 21L);
+        requestMatcher.match(item(102L, "Палатка", "Палатка на двоих"), 22L);
+        assertEquals(List.of(102L, 101L), requestMatcher.getInbox(12L).stream()
+                .map(m -> m.getItem().getId()).collect(Collectors.toList()));
+
+        requestMatcher.removeItem(102L);
+        assertEquals(1, requestMatcher.getInbox(12L).size());
+    }
+
+    @Test
+    void shouldForgetRemovedUser() {
+        requestMatcher.match(item(100L, "Палатка", "Палатка на двоих"), 20L);
+        Mockito.when(itemRequestRepository.findAllOpen()).thenReturn(List.of(
+                request(1L, 10L, "Нужна аккумуляторная дрель"),
+                request(2L, 11L, "Ищу дрель на выходные")));
+        requestMatcher.onUserChanged(new UserChangedEvent(12L, true));
+
+        assertTrue(requestMatcher.getInbox(12L).isEmpty());
+        assertTrue(requestMatcher.match(item(101L, "Палатка", "Палатка на двоих"), 20L).isEmpty());
+    }
+
+    @Test
+    void shouldForgetItemsOfRemovedOwnerAndReopenTheirRequests() {
+        requestMatcher.match(item(100L, "Палатка", "Палатка на двоих"), 20L);
+        requestMatcher.match(item(101L, "Дрель", "Аккумуляторная дрель"), 21L);
+        Mockito.when(itemRequestRepository.findAllOpen()).thenReturn(List.of(
+                request(1L, 10L, "Нужна аккумуляторная дрель"),
+                request(2L, 11L, "Ищу дрель на выходные"),
+                request(3L, 12L, "Палатка на двоих"),
+                request(5L, 14L, "Нужен спальный мешок")));
+
+        requestMatcher.onUserChanged(new UserChangedEvent(20L, true));
+
+        assertTrue(requestMatcher.getInbox(12L).isEmpty());
+        assertEquals(101L, requestMatcher.getInbox(10L).get(0).getItem().getId());
+        assertEquals(List.of(5L), requestMatcher.match(item(102L, "Мешок", "Спальный мешок"), 21L).stream()
+                .map(RequestMatchDto::getRequestId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldApplyChangesOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            requestMatcher.put(request(4L, 13L, "Нужна палатка"));
+            requestMatcher.close(3L);
+            requestMatcher.submit(item(100L, "Палатка", "Палатка на двоих"), 20L);
+            assertTrue(requestMatcher.getInbox(12L).isEmpty());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertTrue(requestMatcher.getInbox(12L).isEmpty());
+            assertTrue(requestMatcher.getInbox(13L).isEmpty());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertTrue(requestMatcher.getInbox(12L).isEmpty());
+            assertEquals(100L, requestMatcher.getInbox(13L).get(0).getItem().getId());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldRemoveItemEvictedFromInboxOnlyFromOtherInboxes() {
+        Mockito.when(itemRequestRepository.findAllOpen()).thenReturn(List.of(
+                request(3L, 12L, "Палатка на двоих"),
+                request(4L, 13L, "Палатка на двоих")));
+        requestMatcher.rebuild();
+        requestMatcher.match(item(100L, "Палатка", "Палатка на двоих"), 20L);
+        requestMatcher.match(item(101L, "Палатка", "Палатка на двоих"), 21L);
+        requestMatcher.match(item(102L, "Палатка", "Палатка на двоих"), 22L);
+
+        requestMatcher.removeItem(100L);
+        assertEquals(List.of(102L, 101L), requestMatcher.getInbox(12L).stream()
+                .map(m -> m.getItem().getId()).collect(Collectors.toList()));
+
+        requestMatcher.removeItem(101L);
+        assertEquals(List.of(102L), requestMatcher.getInbox(13L).stream()
+                .map(m -> m.getItem().getId()).collect(Collectors.toList()));
+    }
+
+    private static ItemRequest request(Long id, Long requestorId, String description) {
+        return ItemRequest.builder()
+                .id(id)
+                .description(description)
+                .requestor(User.builder().id(requestorId).build())
+                .build();
+    }
+
+    private static ItemDto item(Long id, String name, String description) {
+        return ItemDto.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(true)
+                .build();
+    }
+}
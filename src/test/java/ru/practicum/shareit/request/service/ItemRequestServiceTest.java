@@ -16,13 +16,16 @@ import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.matching.RequestMatcher;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceGuard;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -39,6 +42,10 @@ class ItemRequestServiceTest {
     private UserRepository userRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private RequestMatcher requestMatcher;
+    @Mock
+    private UserExistenceGuard userExistenceGuard;
     @InjectMocks
     ItemRequestService itemRequestService;
     private User user;
@@ -48,6 +55,9 @@ class ItemRequestServiceTest {
 
     @BeforeEach
     void beforeEach() {
+        Mockito.when(userExistenceGuard.exists(Mockito.anyLong()))
+                .thenAnswer(invocation -> userRepository.findById(invocation.getArgument(0)).isPresent()
+                        || userRepository.existsById(invocation.getArgument(0)));
         ItemDto itemDto = ItemDto.builder()
                 .id(1L)
                 .name("item")
@@ -72,6 +82,8 @@ class ItemRequestServiceTest {
                 .items(List.of(itemDto))
                 .build();
         itemRequest = ItemRequestMapper.toItemRequest(itemRequestDto);
+        item.setRequest(itemRequest);
+        Mockito.when(userRepository.getReferenceById(user.getId())).thenReturn(user);
     }
 
     @Test
@@ -84,10 +96,11 @@ class ItemRequestServiceTest {
         itemRequest.getRequestor().setId(2L);
         Mockito.when(itemRequestRepository.getItemRequestsByRequestorIsNot(Mockito.any(User.class), Mockito.any()))
                 .thenReturn(List.of(itemRequest));
-        Mockito.when(itemRepository.findAllByRequestId(itemRequest.getId())).thenReturn(List.of(item));
+        Mockito.when(itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId()))).thenReturn(List.of(item));
         List<ItemRequestDto> result = itemRequestService.findAllRequests(1L, 0, 10);
         assertFalse(result.isEmpty());
-        assertNotNull(result.get(0));
+        assertEquals(1, result.get(0).getItems().size());
+        Mockito.verify(itemRequestRepository).getItemRequestsByRequestorIsNot(Mockito.any(User.class), Mockito.any());
     }
 
     @Test
@@ -96,12 +109,13 @@ class ItemRequestServiceTest {
         assertThrows(NotFoundException.class, () -> itemRequestService.getRequestsForCurrentUser(2L));
         Mockito.when(itemRequestRepository.getItemRequestsByRequestorOrderByCreateDateDesc(user))
                 .thenReturn(List.of(itemRequest));
-        Mockito.when(itemRepository.findAllByRequestId(itemRequest.getId())).thenReturn(List.of(item));
+        Mockito.when(itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId()))).thenReturn(List.of(item));
 
         itemRequest.setRequestor(user);
         List<ItemRequestDto> result = itemRequestService.getRequestsForCurrentUser(user.getId());
         assertFalse(result.isEmpty());
-        assertNotNull(result.get(0));
+        assertEquals(List.of(item.getId()), List.of(result.get(0).getItems().get(0).getId()));
+        Mockito.verify(itemRepository).findAllByRequestIdIn(List.of(itemRequest.getId()));
     }
 
     @Test
@@ -112,9 +126,10 @@ class ItemRequestServiceTest {
         assertThrows(NotFoundException.class, () -> itemRequestService.getRequest(1L, 2L));
 
         itemRequest.setRequestor(user);
-        Mockito.when(itemRepository.findAllByRequestId(itemRequest.getId())).thenReturn(List.of(item));
+        Mockito.when(itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId()))).thenReturn(List.of(item));
         ItemRequestDto result = itemRequestService.getRequest(1L, 1L);
         assertNotNull(result);
+        assertEquals(1, result.getItems().size());
     }
 
     @Test
@@ -127,5 +142,16 @@ class ItemRequestServiceTest {
 
         ItemRequestDto result = itemRequestService.addRequest(1L, itemRequestDto);
         assertNotNull(result);
+        Mockito.verify(requestMatcher).put(itemRequest);
+    }
+
+    @Test
+    void shouldGetMatchesOrThrowException() {
+        Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        assertThrows(NotFoundException.class, () -> itemRequestService.getMatches(2L));
+
+        RequestMatchDto match = RequestMatchDto.builder().requestId(1L).score(1.0).build();
+        Mockito.when(requestMatcher.getInbox(user.getId())).thenReturn(List.of(match));
+        assertEquals(List.of(match), itemRequestService.getMatches(user.getId()));
     }
 }
\ No newline at end of file
@@ -9,11 +9,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserPageDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
@@ -178,4 +181,49 @@ class UserControllerTest {
                 .deleteUser(anyLong());
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldReturnUsersPageWithNextCursor() throws Exception {
+        when(userService.getUsersPage("", 1))
+                .thenReturn(UserPageDto.builder().users(List.of(userDto)).nextCursor("next").build());
+
+        mockMvc.perform(get("/users")
+                        .param("cursor", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$.[0].id", is(userDto.getId()), Long.class));
+    }
+
+    @Test
+    void shouldReturnUsersByOffset() throws Exception {
+        when(userService.getUsers(0, 5))
+                .thenReturn(List.of(userDto));
+
+        mockMvc.perform(get("/users")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].id", is(userDto.getId()), Long.class));
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    void shouldStreamUsersAsNdjson() throws Exception {
+        UserDto secondUser = UserDto.builder().id(2L).name("second").email("second@email.ru").build();
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(userDto);
+            consumer.accept(secondUser);
+            return null;
+        }).when(userService).exportUsers(any());
+
+        MvcResult result = mockMvc.perform(get("/users")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(mapper.writeValueAsString(userDto) + "\n"
+                        + mapper.writeValueAsString(secondUser) + "\n"));
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.user.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class UserRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User first;
+    private User second;
+    private User third;
+
+    @BeforeEach
+    void beforeEach() {
+        first = entityManager.persist(User.builder().name("first").email("first@email.ru").build());
+        second = entityManager.persist(User.builder().name("second").email("second@email.ru").build());
+        third = entityManager.persist(User.builder().name("third").email("third@email.ru").build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldSeekUsersAfterId() {
+        List<User> page = userRepository.findAllByIdGreaterThanOrderByIdAsc(first.getId(), PageRequest.of(0, 1));
+        assertEquals(List.of(second.getId()), page.stream().map(User::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldSkipExactNumberOfUsers() {
+        List<User> page = userRepository.findUsers(1, 2);
+        assertEquals(List.of(second.getId(), third.getId()), page.stream().map(User::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldStreamUsersInIdOrder() {
+        try (Stream<UserDto> users = userRepository.streamAll()) {
+            assertEquals(List.of("first", "second", "third"), users.map(UserDto::getName).collect(Collectors.toList()));
+        }
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), userRepository.findAllIds());
+    }
+}
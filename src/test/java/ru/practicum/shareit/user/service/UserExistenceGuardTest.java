@@ -0,0 +1,63 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserExistenceGuardTest {
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+
+    @Test
+    void shouldRememberExistingUsersAndForgetRemovedOnes() {
+        UserExistenceGuard guard = new UserExistenceGuard(userRepository, 10, false, 100, 0.01);
+        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertTrue(guard.exists(1L));
+        assertTrue(guard.exists(1L));
+        assertFalse(guard.exists(2L));
+        Mockito.verify(userRepository, Mockito.times(1)).existsById(1L);
+
+        Mockito.when(userRepository.existsById(1L)).thenReturn(false);
+        guard.onUserChanged(new UserChangedEvent(1L, false));
+        assertTrue(guard.exists(1L));
+        guard.onUserChanged(new UserChangedEvent(1L, true));
+        assertFalse(guard.exists(1L));
+        assertEquals(2L, guard.getStats().getHits());
+    }
+
+    @Test
+    void shouldKeepKnownIdsBounded() {
+        UserExistenceGuard guard = new UserExistenceGuard(userRepository, 2, false, 100, 0.01);
+        guard.register(1L);
+        guard.register(2L);
+        guard.register(3L);
+
+        assertEquals(2, guard.getStats().getSize());
+        assertEquals(1L, guard.getStats().getEvictions());
+        assertFalse(guard.exists(1L));
+        assertTrue(guard.exists(3L));
+    }
+
+    @Test
+    void shouldAnswerUnknownUsersFromBloomFilterWithoutDatabase() {
+        Mockito.when(userRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
+        UserExistenceGuard guard = new UserExistenceGuard(userRepository, 10, true, 1000, 0.001);
+        guard.warmUp();
+
+        assertTrue(guard.exists(1L));
+        for (long id = 100; id < 200; id++) {
+            guard.exists(id);
+        }
+        assertTrue(guard.getStats().getMisses() < 10);
+
+        guard.register(500L);
+        assertTrue(guard.exists(500L));
+        Mockito.verify(userRepository, Mockito.never()).existsById(500L);
+    }
+}
@@ -9,22 +9,32 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.exceptions.InvalidArgumentsException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.event.UserChangedEvent;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserPageDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @MockitoSettings(strictness = Strictness.LENIENT)
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private UserExistenceGuard userExistenceGuard;
     @InjectMocks
     UserService userService;
     private User user;
@@ -47,6 +57,32 @@ class UserServiceTest {
         assertNotNull(result);
     }
 
+    @Test
+    void shouldGetUsersPageByOffsetOrCursor() {
+        Mockito.when(userRepository.findUsers(5, 10)).thenReturn(List.of(user));
+        assertEquals(List.of(userDto), userService.getUsers(5, 10));
+        assertThrows(InvalidArgumentsException.class, () -> userService.getUsers(-1, 10));
+
+        Mockito.when(userRepository.findAllByIdGreaterThanOrderByIdAsc(Mockito.eq(0L), Mockito.any())).thenReturn(List.of(user));
+        UserPageDto page = userService.getUsersPage("", 1);
+        assertEquals(List.of(userDto), page.getUsers());
+        assertNotNull(page.getNextCursor());
+
+        Mockito.when(userRepository.findAllByIdGreaterThanOrderByIdAsc(Mockito.eq(user.getId()), Mockito.any())).thenReturn(List.of());
+        UserPageDto lastPage = userService.getUsersPage(page.getNextCursor(), 1);
+        assertTrue(lastPage.getUsers().isEmpty());
+        assertNull(lastPage.getNextCursor());
+        assertThrows(InvalidArgumentsException.class, () -> userService.getUsersPage("not a cursor", 1));
+    }
+
+    @Test
+    void shouldExportUsers() {
+        Mockito.when(userRepository.streamAll()).thenReturn(Stream.of(userDto));
+        List<UserDto> exported = new ArrayList<>();
+        userService.exportUsers(exported::add);
+        assertEquals(List.of(userDto), exported);
+    }
+
     @Test
     void shouldGetUserOrThrowException() {
         Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
@@ -62,6 +98,7 @@ class UserServiceTest {
         UserDto result = userService.addUser(userDto);
 
         assertNotNull(result);
+        Mockito.verify(userExistenceGuard).register(user.getId());
     }
 
     @Test
@@ -84,5 +121,6 @@ class UserServiceTest {
 
         userService.deleteUser(user.getId());
         Mockito.verify(userRepository).deleteById(user.getId());
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(UserChangedEvent.class));
     }
 }
\ No newline at end of file